@@ -0,0 +1,76 @@
+package application.blackjackxgui;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadcastBenchmark {
+    @Param({"1", "2", "3"})
+    public int players;
+
+    private Table table;
+    private CountingConnection[] connections;
+
+    @Setup
+    public void setup() throws IOException {
+        // The executor drops the round a full table would start; hands are dealt by hand below.
+        // No turn timer is needed since no turn is ever played, nor sessions since no one drops.
+        table = new Table(1, new Deck(Deck.DECKS, Deck.PENETRATION, new SplittableRandom(42)), command -> { }, null, 0, Journal.disabled(),
+                new Ledger(1000, 10, 500, null), RoundStats.disabled(), HandHistory.disabled());
+        connections = new CountingConnection[players];
+        PlayerHandler[] handlers = new PlayerHandler[players];
+        Sessions sessions = new Sessions(null, 0);
+        for (int i = 0; i < players; i++) {
+            table.tryReserveSeat();
+            connections[i] = new CountingConnection();
+            handlers[i] = new PlayerHandler(connections[i], table, sessions, null);
+            table.seatPlayer(handlers[i]);
+        }
+        table.dealInitialPlayerCards();
+        table.dealInitialDealerCards();
+    }
+
+    // Worst case for the delta encoding: every seat and the dealer changed since the last flush
+    @Benchmark
+    public long broadcastGameState() {
+        table.markAllChanged();
+        table.broadcastGameState();
+        return connections[0].chars;
+    }
+
+    // Stands in for a socket: keeps a running total so the lines can't be optimised away
+    static final class CountingConnection implements Connection {
+        long chars;
+
+        @Override
+        public void send(String line) {
+            chars += line.length();
+        }
+
+        @Override
+        public void write(byte[] bytes) {
+            chars += bytes.length;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String getRemoteAddress() {
+            return "benchmark";
+        }
+
+        @Override
+        public void setListener(ConnectionListener listener) {
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package application.blackjackxgui;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CommandBenchmark {
+    private byte[][] lines;
+    private int next;
+
+    @Setup
+    public void setup() {
+        // What clients send on their turns, in the cases they send them
+        String[] actions = {"HIT", "stand", "Double", "SPLIT", "hint", "INSURANCE", "STAND"};
+        lines = new byte[actions.length][];
+        for (int i = 0; i < actions.length; i++) {
+            lines[i] = actions[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    // One action line as the transport hands it to PlayerHandler; gc.alloc.rate.norm should be 0
+    @Benchmark
+    public Command decode() {
+        byte[] line = lines[next++ % lines.length];
+        return Command.decode(line, 0, line.length);
+    }
+}
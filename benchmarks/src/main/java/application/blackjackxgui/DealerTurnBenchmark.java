@@ -0,0 +1,32 @@
+package application.blackjackxgui;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DealerTurnBenchmark {
+    private final Deck deck = new Deck(Deck.DECKS, Deck.PENETRATION, new SplittableRandom(42));
+    private final Hand dealerHand = new Hand();
+
+    // Deal two cards and draw to 17, as Table.playDealerTurn does without the broadcasts
+    @Benchmark
+    public int dealerTurn() {
+        if (deck.needsShuffle()) {
+            deck.shuffle();
+        }
+        dealerHand.clear();
+        dealerHand.add(deck.drawCard());
+        dealerHand.add(deck.drawCard());
+        while (Rules.dealerHits(dealerHand)) {
+            dealerHand.add(deck.drawCard());
+        }
+        return dealerHand.getValue();
+    }
+}
@@ -0,0 +1,42 @@
+package application.blackjackxgui;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeckBenchmark {
+    private final SplittableRandom random = new SplittableRandom(42);
+    private Deck deck;
+
+    @Setup
+    public void setup() {
+        deck = new Deck(Deck.DECKS, Deck.PENETRATION, random);
+    }
+
+    @Benchmark
+    public Deck construct() {
+        return new Deck(Deck.DECKS, Deck.PENETRATION, random);
+    }
+
+    @Benchmark
+    public int shuffle() {
+        deck.shuffle();
+        return deck.remaining();
+    }
+
+    // One card as a table deals it, including the reshuffle once the cut card comes out
+    @Benchmark
+    public int draw() {
+        if (deck.needsShuffle()) {
+            deck.shuffle();
+        }
+        return deck.drawCard();
+    }
+}
@@ -0,0 +1,55 @@
+package application.blackjackxgui;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandBenchmark {
+    private static final int HEARTS = 0;
+    private static final int SPADES = 3;
+
+    @Param({"typical", "aceHeavy"})
+    public String kind;
+
+    private int[] cards;
+    private final Hand hand = new Hand();
+
+    @Setup
+    public void setup() {
+        if (kind.equals("typical")) {
+            // 10, 5, 2: a hard 17 reached with one hit
+            cards = new int[] {Card.of(8, HEARTS), Card.of(3, SPADES), Card.of(0, HEARTS)};
+        } else {
+            // A, A, 6, A, 9: soft totals that have to fall back to hard
+            cards = new int[] {Card.of(Card.ACE, HEARTS), Card.of(Card.ACE, SPADES), Card.of(4, HEARTS),
+                    Card.of(Card.ACE, HEARTS), Card.of(7, SPADES)};
+        }
+        for (int card : cards) {
+            hand.add(card);
+        }
+    }
+
+    // Building the hand card by card, reading the total after each card as a turn does
+    @Benchmark
+    public int dealAndEvaluate() {
+        Hand fresh = hand;
+        fresh.clear();
+        int value = 0;
+        for (int card : cards) {
+            fresh.add(card);
+            value += fresh.getValue();
+        }
+        return value;
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return hand.getValue();
+    }
+}
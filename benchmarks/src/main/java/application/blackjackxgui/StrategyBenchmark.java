@@ -0,0 +1,38 @@
+package application.blackjackxgui;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StrategyBenchmark {
+    private static final int HEARTS = 0;
+
+    private final Hand hand = new Hand();
+    private int[] upcards;
+    private int next;
+
+    @Setup
+    public void setup() {
+        // Soft 17 (A, 6), which has to be looked up on the soft side of the table
+        hand.add(Card.of(Card.ACE, HEARTS));
+        hand.add(Card.of(4, HEARTS));
+        upcards = new int[Card.RANKS];
+        for (int rank = 0; rank < Card.RANKS; rank++) {
+            upcards[rank] = Card.of(rank, HEARTS);
+        }
+    }
+
+    // One hint as PlayerHandler serves it: the action and its expected return
+    @Benchmark
+    public float hint() {
+        int upcard = upcards[next];
+        next = (next + 1) % upcards.length; // Wraps before the int would overflow
+        return StrategyTable.action(hand, upcard, true, true) + StrategyTable.expectedReturn(hand, upcard, true, true);
+    }
+}
@@ -0,0 +1,443 @@
+package application.blackjackxgui.client;
+
+import application.blackjackxgui.BinaryProtocol;
+import application.blackjackxgui.Card;
+import application.blackjackxgui.Outcome;
+import application.blackjackxgui.StrategyTable;
+import application.blackjackxgui.Table;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
+import javafx.stage.Stage;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class BlackjackController {
+    private static final String HOST = "127.0.0.1";
+    private static final int PORT = 12345;
+    private static final long RECONNECT_DELAY_MILLIS = 500; // Doubled after each failed attempt
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 8000;
+    private static final int MAX_RECONNECT_ATTEMPTS = 10;
+
+    @FXML
+    private Label dealerHandLabel;
+
+    @FXML
+    private Label player1HandLabel;
+
+    @FXML
+    private Label player2HandLabel;
+
+    @FXML
+    private Label player3HandLabel;
+
+    @FXML
+    private Label statusLabel;
+
+    @FXML
+    private Button hitButton;
+
+    @FXML
+    private Button standButton;
+
+    @FXML
+    private Button doubleButton;
+
+    @FXML
+    private Button splitButton;
+
+    @FXML
+    private Button insuranceButton;
+
+    @FXML
+    private Button hintButton;
+
+    private volatile PrintWriter out;
+    private volatile Socket socket;
+    private DataInputStream in;
+    private volatile String sessionToken; // Sent as RESUME after a dropped connection
+    private int handCount = 1; // The player's hands this round, from PLAYING_HAND frames; labels results after a split
+    private volatile boolean closing;
+
+    // What the screen should show next, written by the reader thread. Each label keeps only its
+    // latest text, so a burst of messages costs one update per label, applied by the pulse at
+    // most once per frame instead of a Platform.runLater per message.
+    private final Object pendingLock = new Object();
+    private boolean pending;
+    private String pendingDealer;
+    private final String[] pendingSeats = new String[Table.MAX_PLAYERS];
+    private final StringBuilder pendingStatus = new StringBuilder(); // Every status line since the last frame
+    private Boolean pendingButtonsDisabled;
+    private final String[] appliedSeats = new String[Table.MAX_PLAYERS]; // Pulse-thread copy
+
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            applyPending();
+        }
+    };
+
+    @FXML
+    public void initialize() {
+        // Set button actions
+        hitButton.setOnAction(e -> {
+            System.out.println("HIT button clicked");
+            sendAction("HIT");
+        });
+
+        standButton.setOnAction(e -> {
+            System.out.println("STAND button clicked");
+            sendAction("STAND");
+        });
+
+        doubleButton.setOnAction(e -> sendAction("DOUBLE"));
+        splitButton.setOnAction(e -> sendAction("SPLIT"));
+        insuranceButton.setOnAction(e -> sendAction("INSURANCE"));
+
+        hintButton.setOnAction(e -> {
+            PrintWriter writer = out;
+            if (writer != null) {
+                writer.println("HINT"); // Answered with a HINT message; the turn carries on
+            }
+        });
+
+        disableActionButtons(true);
+        pulse.start();
+        connectToServer();
+    }
+
+    private void connectToServer() {
+        Thread reader = new Thread(this::readLoop, "server-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    // Reads until the connection drops, then reconnects with a growing delay. A reconnect
+    // resumes the session, so the seat, the hands in play and the bankroll are still there.
+    private void readLoop() {
+        long delay = RECONNECT_DELAY_MILLIS;
+        int attempts = 0;
+        while (!closing) {
+            try {
+                open();
+                attempts = 0;
+                delay = RECONNECT_DELAY_MILLIS;
+                String message;
+                while ((message = readLine()) != null) {
+                    if (message.equals(BinaryProtocol.ACCEPTED)) {
+                        readFrames(); // Everything after the acknowledgement is binary
+                        break;
+                    }
+                    handleServerMessage(message);
+                }
+            } catch (IOException e) {
+                // Retried below
+            }
+            if (closing) {
+                return;
+            }
+            setButtonsDisabled(true);
+            if (++attempts > MAX_RECONNECT_ATTEMPTS) {
+                showStatus("Disconnected from server.");
+                showAlert("Could not reach the server. Please restart the game.");
+                return;
+            }
+            showStatus("Connection lost. Reconnecting...");
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                return;
+            }
+            delay = Math.min(delay * 2, MAX_RECONNECT_DELAY_MILLIS);
+        }
+    }
+
+    private void open() throws IOException {
+        Socket connection = new Socket(HOST, PORT);
+        socket = connection;
+        in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+        PrintWriter writer = new PrintWriter(connection.getOutputStream(), true);
+        String token = sessionToken;
+        if (token != null) {
+            writer.println(BinaryProtocol.RESUME + token); // Must be the first line
+        }
+        writer.println(BinaryProtocol.REQUEST + BinaryProtocol.VERSION); // Servers without bin1 keep sending text
+        out = writer;
+        System.out.println(token != null ? "Reconnected to server." : "Connected to server.");
+    }
+
+    private void sendAction(String action) {
+        PrintWriter writer = out;
+        if (writer != null) {
+            writer.println(action); // Send action to the server
+            System.out.println("Sent action to server: " + action); // Debug log
+            disableActionButtons(true); // Disable buttons after sending the action
+        }
+    }
+
+    private void handleServerMessage(String message) {
+        System.out.println("Received from server: " + message);
+
+        if (message.startsWith("STATE|")) {
+            // Handle state updates (e.g., updating labels)
+            handleStateUpdate(message.replace("STATE|", ""));
+        } else if (message.startsWith("SESSION|")) {
+            sessionToken = message.replace("SESSION|", "");
+        } else if (message.startsWith("INFO|")) {
+            // Handle informational messages (no pop-ups needed)
+            System.out.println(message.replace("INFO|", ""));
+        } else if (message.startsWith("BANKROLL|")) {
+            showStatus(message.replace("BANKROLL|", ""));
+        } else if (message.startsWith("HINT|")) {
+            showStatus("Suggested play: " + message.replace("HINT|", ""));
+        } else if (message.startsWith("RESULT|")) {
+            showStatus(message.replace("RESULT|", ""));
+        } else if (message.equalsIgnoreCase("Your turn")) {
+            setButtonsDisabled(false); // Enable buttons for player's turn
+            showStatus("It's your turn! Take an action.");
+        } else if (message.equalsIgnoreCase("Wait for your turn")) {
+            setButtonsDisabled(true); // Disable buttons when waiting
+        }
+    }
+
+    // Reads one UTF-8 text line; the stream is shared with the binary frames that may follow
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return line.size() > 0 ? line.toString(StandardCharsets.UTF_8) : null;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private void readFrames() throws IOException {
+        while (true) {
+            int length;
+            try {
+                length = in.readUnsignedShort();
+            } catch (EOFException e) {
+                return;
+            }
+            byte[] frame = new byte[length];
+            in.readFully(frame);
+            handleFrame(ByteBuffer.wrap(frame));
+        }
+    }
+
+    private void handleFrame(ByteBuffer frame) {
+        int opcode = frame.get() & 0xFF;
+        switch (opcode) {
+            case BinaryProtocol.INFO -> {
+                String text = StandardCharsets.UTF_8.decode(frame).toString();
+                System.out.println(text);
+            }
+            case BinaryProtocol.SESSION -> sessionToken = StandardCharsets.UTF_8.decode(frame).toString();
+            case BinaryProtocol.DEALER_UPCARD -> showDealer(Card.name(frame.get()) + " (visible card)");
+            case BinaryProtocol.DEALER_DREW -> showDealer("Dealer drew: " + Card.name(frame.get()));
+            case BinaryProtocol.DEALER_FINAL -> {
+                int value = frame.get();
+                showDealer("Dealer's final hand: [" + readHand(frame) + "] (Value: " + value + ")");
+            }
+            case BinaryProtocol.SEAT_HAND -> {
+                int seat = frame.get();
+                StringBuilder hands = new StringBuilder(readHand(frame));
+                while (frame.hasRemaining()) {
+                    hands.append(" | ").append(readHand(frame)); // Split hands
+                }
+                showSeat(seat, hands.toString());
+            }
+            case BinaryProtocol.YOUR_TURN -> {
+                setButtonsDisabled(false); // Enable buttons for player's turn
+                showStatus("It's your turn! Take an action.");
+            }
+            case BinaryProtocol.WAIT -> setButtonsDisabled(true);
+            case BinaryProtocol.HINT -> {
+                String action = StrategyTable.name(frame.get());
+                double expectedReturn = frame.getShort() / 10.0;
+                showStatus(String.format("Suggested play: %s (expected return %+.1f%% of your bet)", action, expectedReturn));
+            }
+            case BinaryProtocol.INITIAL_HAND -> handCount = 1; // A new round
+            case BinaryProtocol.RESULT -> {
+                String message = Outcome.values()[frame.get()].getMessage();
+                int hand = frame.hasRemaining() ? frame.get() : 0;
+                showStatus(handCount > 1 ? "Hand " + (hand + 1) + ": " + message : message);
+            }
+            case BinaryProtocol.PLAYING_HAND -> {
+                int hand = frame.get();
+                int count = frame.get();
+                handCount = count;
+                System.out.println("Playing hand " + (hand + 1) + " of " + count + ": " + readHand(frame));
+            }
+            case BinaryProtocol.WAGER -> showStatus("Bet: " + frame.getLong() + " chips. Bankroll: " + frame.getLong());
+            case BinaryProtocol.PAYOUT -> showStatus("Paid: " + frame.getLong() + " chips. Bankroll: " + frame.getLong());
+            default -> {
+                // Turn markers, sequence numbers and the player's own draws need no GUI update
+            }
+        }
+    }
+
+    private static String readHand(ByteBuffer frame) {
+        int count = frame.get() & 0xFF;
+        StringBuilder hand = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                hand.append(", ");
+            }
+            hand.append(Card.name(frame.get()));
+        }
+        return hand.toString();
+    }
+
+    private Label seatLabel(int seat) {
+        return switch (seat) {
+            case 0 -> player1HandLabel;
+            case 1 -> player2HandLabel;
+            case 2 -> player3HandLabel;
+            default -> null;
+        };
+    }
+
+    private void handleStateUpdate(String stateMessage) {
+        if (stateMessage.startsWith("Dealer")) {
+            showDealer(stateMessage.replace("Dealer's Hand:", "").trim());
+        } else if (stateMessage.startsWith("Player 1")) {
+            showSeat(0, stateMessage.replace("Player 1's Hand:", "").trim());
+        } else if (stateMessage.startsWith("Player 2")) {
+            showSeat(1, stateMessage.replace("Player 2's Hand:", "").trim());
+        } else if (stateMessage.startsWith("Player 3")) {
+            showSeat(2, stateMessage.replace("Player 3's Hand:", "").trim());
+        } else if (stateMessage.startsWith("Your Hand")) {
+            // Update the player's own hand in the GUI
+            showSeat(0, stateMessage.replace("Your Hand:", "").trim());
+        }
+    }
+
+    private void showDealer(String text) {
+        synchronized (pendingLock) {
+            pendingDealer = text;
+            pending = true;
+        }
+    }
+
+    private void showSeat(int seat, String text) {
+        if (seat < 0 || seat >= pendingSeats.length) {
+            return;
+        }
+        synchronized (pendingLock) {
+            pendingSeats[seat] = text;
+            pending = true;
+        }
+    }
+
+    // Status lines that arrive in the same frame (e.g. each split hand's result) are shown together
+    private void showStatus(String text) {
+        synchronized (pendingLock) {
+            if (pendingStatus.length() > 0) {
+                pendingStatus.append('\n');
+            }
+            pendingStatus.append(text);
+            pending = true;
+        }
+    }
+
+    private void setButtonsDisabled(boolean disable) {
+        synchronized (pendingLock) {
+            pendingButtonsDisabled = disable;
+            pending = true;
+        }
+    }
+
+    // Runs on the FX thread once per pulse; does nothing unless a message arrived since the last one
+    private void applyPending() {
+        String dealer;
+        String status = null;
+        Boolean buttonsDisabled;
+        synchronized (pendingLock) {
+            if (!pending) {
+                return;
+            }
+            pending = false;
+            dealer = pendingDealer;
+            pendingDealer = null;
+            for (int i = 0; i < pendingSeats.length; i++) {
+                appliedSeats[i] = pendingSeats[i];
+                pendingSeats[i] = null;
+            }
+            if (pendingStatus.length() > 0) {
+                status = pendingStatus.toString();
+                pendingStatus.setLength(0);
+            }
+            buttonsDisabled = pendingButtonsDisabled;
+            pendingButtonsDisabled = null;
+        }
+        if (dealer != null) {
+            dealerHandLabel.setText(dealer);
+        }
+        for (int i = 0; i < appliedSeats.length; i++) {
+            if (appliedSeats[i] != null) {
+                seatLabel(i).setText(appliedSeats[i]);
+            }
+        }
+        if (status != null) {
+            statusLabel.setText(status);
+        }
+        if (buttonsDisabled != null) {
+            disableActionButtons(buttonsDisabled);
+        }
+    }
+
+    private void disableActionButtons(boolean disable) {
+        System.out.println("Setting buttons to " + (disable ? "disabled" : "enabled")); // Debug log
+        hitButton.setDisable(disable);
+        standButton.setDisable(disable);
+        doubleButton.setDisable(disable);
+        splitButton.setDisable(disable);
+        insuranceButton.setDisable(disable);
+        hintButton.setDisable(disable);
+    }
+
+    private void showAlert(String message) {
+        Platform.runLater(() -> {
+            Alert alert = new Alert(AlertType.INFORMATION);
+            alert.setTitle("Blackjack Game");
+            alert.setHeaderText(null);
+            alert.setContentText(message);
+            alert.showAndWait();
+        });
+    }
+    public void setStage(Stage stage) {
+        stage.setOnCloseRequest(event -> {
+            // Perform cleanup actions or notify the server before closing
+            closing = true;
+            PrintWriter writer = out;
+            if (writer != null) {
+                writer.println("DISCONNECT"); // Notify the server of disconnection
+            }
+            Socket connection = socket;
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (IOException e) {
+                    // Closing anyway
+                }
+            }
+            pulse.stop();
+            System.out.println("Application is closing...");
+            Platform.exit();
+        });
+    }
+
+}
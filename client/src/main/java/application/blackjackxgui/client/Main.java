@@ -1,4 +1,4 @@
-package application.blackjackxgui;
+package application.blackjackxgui.client;
 
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
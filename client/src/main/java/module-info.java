@@ -0,0 +1,9 @@
+module application.blackjackxgui.client {
+    requires application.blackjackxgui;
+    requires javafx.controls;
+    requires javafx.fxml;
+
+
+    opens application.blackjackxgui.client to javafx.fxml;
+    exports application.blackjackxgui.client;
+}
\ No newline at end of file
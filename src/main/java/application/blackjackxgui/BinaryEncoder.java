@@ -0,0 +1,226 @@
+package application.blackjackxgui;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Length-prefixed frames as described in BinaryProtocol
+public class BinaryEncoder extends WireEncoder {
+    private byte[] buffer = new byte[256];
+    private int size;
+    private int frameStart;
+
+    private void begin(int opcode) {
+        frameStart = size;
+        ensure(3);
+        size += 2; // Length is filled in by end()
+        buffer[size++] = (byte) opcode;
+    }
+
+    private void end() {
+        int length = size - frameStart - 2;
+        buffer[frameStart] = (byte) (length >>> 8);
+        buffer[frameStart + 1] = (byte) length;
+    }
+
+    private void put(int value) {
+        ensure(1);
+        buffer[size++] = (byte) value;
+    }
+
+    private void putLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            put((int) (value >>> shift));
+        }
+    }
+
+    private void putHand(Hand hand) {
+        ensure(1 + hand.size());
+        buffer[size++] = (byte) hand.size();
+        for (int i = 0; i < hand.size(); i++) {
+            buffer[size++] = (byte) hand.get(i);
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (size + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes));
+        }
+    }
+
+    private void frame(int opcode) {
+        begin(opcode);
+        end();
+    }
+
+    @Override
+    public void welcome(String text) {
+        info(text);
+    }
+
+    @Override
+    public void info(String text) {
+        text(BinaryProtocol.INFO, text);
+    }
+
+    @Override
+    public void session(String token) {
+        text(BinaryProtocol.SESSION, token);
+    }
+
+    private void text(int opcode, String text) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(utf8.length, BinaryProtocol.MAX_FRAME - 1);
+        begin(opcode);
+        ensure(length);
+        System.arraycopy(utf8, 0, buffer, size, length);
+        size += length;
+        end();
+    }
+
+    @Override
+    public void dealerDealt(int upcard) {
+        dealerUpcard(upcard); // Text distinguishes the deal from later state lines; binary doesn't need to
+    }
+
+    @Override
+    public void dealerUpcard(int upcard) {
+        begin(BinaryProtocol.DEALER_UPCARD);
+        put(upcard);
+        end();
+    }
+
+    @Override
+    public void dealerTurn() {
+        frame(BinaryProtocol.DEALER_TURN);
+    }
+
+    @Override
+    public void dealerDrew(int card) {
+        begin(BinaryProtocol.DEALER_DREW);
+        put(card);
+        end();
+    }
+
+    @Override
+    public void dealerFinal(Hand hand) {
+        begin(BinaryProtocol.DEALER_FINAL);
+        put(hand.getValue());
+        putHand(hand);
+        end();
+    }
+
+    @Override
+    public void seatHands(int seat, Hand[] hands, int count) {
+        begin(BinaryProtocol.SEAT_HAND);
+        put(seat);
+        putHand(hands[0]); // Always at least one hand, empty before the deal
+        for (int i = 1; i < count; i++) {
+            putHand(hands[i]);
+        }
+        end();
+    }
+
+    @Override
+    public void turn(int seat) {
+        begin(BinaryProtocol.TURN);
+        put(seat);
+        end();
+    }
+
+    @Override
+    public void sequence(long sequence) {
+        begin(BinaryProtocol.SEQUENCE);
+        putLong(sequence);
+        end();
+    }
+
+    @Override
+    public void initialHand(Hand hand) {
+        begin(BinaryProtocol.INITIAL_HAND);
+        putHand(hand);
+        end();
+    }
+
+    @Override
+    public void yourTurn() {
+        frame(BinaryProtocol.YOUR_TURN);
+    }
+
+    @Override
+    public void drew(int card, Hand hand) {
+        begin(BinaryProtocol.DREW);
+        put(card);
+        putHand(hand);
+        end();
+    }
+
+    @Override
+    public void busted() {
+        frame(BinaryProtocol.BUSTED);
+    }
+
+    @Override
+    public void stood() {
+        frame(BinaryProtocol.STOOD);
+    }
+
+    @Override
+    public void waitForAction() {
+        frame(BinaryProtocol.WAIT);
+    }
+
+    @Override
+    public void hint(int action, float expectedReturn) {
+        int thousandths = Math.round(expectedReturn * 1000);
+        begin(BinaryProtocol.HINT);
+        put(action);
+        put(thousandths >> 8);
+        put(thousandths);
+        end();
+    }
+
+    @Override
+    public void playingHand(int hand, int count, Hand cards) {
+        begin(BinaryProtocol.PLAYING_HAND);
+        put(hand);
+        put(count);
+        putHand(cards);
+        end();
+    }
+
+    @Override
+    public void result(int hand, int count, Outcome outcome) {
+        begin(BinaryProtocol.RESULT);
+        put(outcome.ordinal());
+        put(hand);
+        end();
+    }
+
+    @Override
+    public void wager(long stake, long balance) {
+        begin(BinaryProtocol.WAGER);
+        putLong(stake);
+        putLong(balance);
+        end();
+    }
+
+    @Override
+    public void payout(long payout, long balance) {
+        begin(BinaryProtocol.PAYOUT);
+        putLong(payout);
+        putLong(balance);
+        end();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public byte[] drain() {
+        byte[] bytes = Arrays.copyOf(buffer, size);
+        size = 0;
+        return bytes;
+    }
+}
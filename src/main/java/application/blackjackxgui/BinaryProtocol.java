@@ -0,0 +1,45 @@
+package application.blackjackxgui;
+
+// Opcodes and framing for the optional "bin1" wire protocol. A client that wants it sends
+// "PROTOCOL bin1"; the server answers with the text line "INFO|Protocol: bin1" and every byte
+// it sends after that line is a frame:
+//
+//   u16 length (opcode + payload, big-endian) | u8 opcode | payload
+//
+// Cards are single-byte ordinals (see Card), seats are 0-based, and a hand is a u8 card count
+// followed by the cards. Actions sent by the client stay text lines in both protocols.
+public final class BinaryProtocol {
+    public static final String VERSION = "bin1";
+    public static final String REQUEST = "PROTOCOL ";
+    public static final String ACCEPTED = "INFO|Protocol: " + VERSION;
+    // Sent instead of anything else as a connection's first line to take back a dropped seat
+    public static final String RESUME = "RESUME ";
+    // Or, as the first line, to watch a table (by its 1-based id) without playing
+    public static final String SPECTATE = "SPECTATE ";
+
+    public static final int INFO = 0x01;          // UTF-8 text
+    public static final int SESSION = 0x02;       // UTF-8 session token for RESUME
+    public static final int DEALER_UPCARD = 0x10; // card
+    public static final int DEALER_DREW = 0x11;   // card
+    public static final int DEALER_FINAL = 0x12;  // value, hand
+    public static final int DEALER_TURN = 0x13;
+    public static final int SEAT_HAND = 0x20;     // seat, hand, then each further hand after a split
+    public static final int TURN = 0x21;          // seat
+    public static final int SEQUENCE = 0x22;      // i64
+    public static final int INITIAL_HAND = 0x30;  // hand
+    public static final int YOUR_TURN = 0x31;
+    public static final int DREW = 0x32;          // card, hand
+    public static final int BUSTED = 0x33;
+    public static final int STOOD = 0x34;
+    public static final int WAIT = 0x35;
+    public static final int HINT = 0x36;          // StrategyTable action (STAND, HIT, DOUBLE, SPLIT), i16 expected return in thousandths of the bet
+    public static final int WAGER = 0x37;         // i64 chips staked on the round so far, i64 bankroll left
+    public static final int PLAYING_HAND = 0x38;  // hand index, hand count, hand
+    public static final int RESULT = 0x40;        // Outcome ordinal, hand index
+    public static final int PAYOUT = 0x41;        // i64 chips paid back, i64 bankroll
+
+    public static final int MAX_FRAME = 0xFFFF;
+
+    private BinaryProtocol() {
+    }
+}
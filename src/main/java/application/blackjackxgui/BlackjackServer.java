@@ -1,278 +1,444 @@
-package application.blackjackxgui;
-
-import java.io.*;
-import java.net.*;
-import java.util.*;
-import java.util.concurrent.*;
-
-public class BlackjackServer {
-    private final ServerSocket serverSocket;
-    private final ExecutorService threadPool;
-    private final int MAX_PLAYERS = 3;
-    private final List<PlayerHandler> players = Collections.synchronizedList(new ArrayList<>());
-    private Deck deck;
-    private List<String> dealerHand;
-    private boolean gameInProgress;
-
-    public BlackjackServer(int port) throws IOException {
-        serverSocket = new ServerSocket(port);
-        threadPool = Executors.newFixedThreadPool(MAX_PLAYERS);
-        gameInProgress = false;
-        System.out.println("Blackjack server started on port " + port);
-    }
-
-    public void run() {
-        try {
-            while (true) {
-                // Accept incoming connections
-                Socket clientSocket = serverSocket.accept();
-                synchronized (players) {
-                    if (players.size() < MAX_PLAYERS) {
-                        PlayerHandler player = new PlayerHandler(clientSocket, this);
-                        players.add(player);
-                        threadPool.execute(player);
-                        System.out.println("Player connected: " + clientSocket.getInetAddress());
-                    } else {
-                        rejectConnection(clientSocket);
-                    }
-
-                    // Check if a new game can start
-                    if (players.size() == MAX_PLAYERS && !gameInProgress) {
-                        System.out.println("All players connected. Starting game...");
-                        startGame();
-                    }
-                }
-            }
-        } catch (IOException e) {
-            System.err.println("Error accepting client connection: " + e.getMessage());
-        } finally {
-            shutdown();
-        }
-    }
-
-    private void rejectConnection(Socket clientSocket) {
-        try (PrintWriter out = new PrintWriter(clientSocket.getOutputStream(), true)) {
-            out.println("INFO|Game in progress. Please wait for the next round.");
-        } catch (IOException e) {
-            System.err.println("Error rejecting connection: " + e.getMessage());
-        } finally {
-            try {
-                clientSocket.close();
-            } catch (IOException e) {
-                System.err.println("Error closing client socket: " + e.getMessage());
-            }
-        }
-    }
-
-    private void startGame() {
-        synchronized (this) {
-            gameInProgress = true;
-        }
-
-        deck = new Deck();
-        dealerHand = new ArrayList<>();
-        deck.shuffle();
-
-        System.out.println("Game started. Dealing cards...");
-
-        synchronized (players) {
-            for (PlayerHandler player : players) {
-                player.dealInitialCards();
-            }
-        }
-        dealInitialDealerCards();
-
-        broadcastGameState();
-
-        playTurns();
-
-        playDealerTurn();
-
-        announceResults();
-
-        resetGameState();
-
-        synchronized (this) {
-            gameInProgress = false;
-        }
-
-        // Check if there are still enough players to restart the game
-        synchronized (players) {
-            if (players.size() == MAX_PLAYERS) {
-                System.out.println("Restarting game...");
-                startGame();
-            } else {
-                System.out.println("Waiting for more players...");
-            }
-        }
-    }
-
-    private void dealInitialDealerCards() {
-        dealerHand.add(deck.drawCard());
-        dealerHand.add(deck.drawCard());
-        broadcast("STATE|Dealer's visible card: " + dealerHand.get(0));
-    }
-
-    private void playTurns() {
-        for (int i = 0; i < players.size(); i++) {
-            PlayerHandler player = players.get(i);
-
-            if (!player.isBusted() && !player.hasStood()) {
-                broadcast("INFO|Player " + (i + 1) + "'s turn.");
-                try {
-                    player.takeTurn();
-                } catch (Exception e) {
-                    System.err.println("Error with player " + (i + 1) + ": " + e.getMessage());
-                    player.sendMessage("INFO|Disconnected. You are standing by default.");
-                    player.reset();
-                }
-                broadcastGameState();
-            }
-        }
-    }
-
-    private void playDealerTurn() {
-        int dealerValue = calculateHandValue(dealerHand);
-        broadcast("INFO|Dealer's turn...");
-        while (dealerValue < 17) {
-            String card = deck.drawCard();
-            dealerHand.add(card);
-            broadcast("STATE|Dealer drew: " + card);
-            dealerValue = calculateHandValue(dealerHand);
-        }
-        broadcast("STATE|Dealer's final hand: " + dealerHand + " (Value: " + dealerValue + ")");
-    }
-
-    private void announceResults() {
-        int dealerValue = calculateHandValue(dealerHand);
-        synchronized (players) {
-            for (int i = 0; i < players.size(); i++) {
-                PlayerHandler player = players.get(i);
-                if (player.isBusted()) {
-                    player.sendMessage("RESULT|You lost! You're busted.");
-                } else if (dealerValue > 21 || player.getHandValue() > dealerValue) {
-                    player.sendMessage("RESULT|Congratulations! You win!");
-                } else if (player.getHandValue() == dealerValue) {
-                    player.sendMessage("RESULT|It's a tie!");
-                } else {
-                    player.sendMessage("RESULT|You lost. Dealer wins.");
-                }
-            }
-        }
-    }
-
-    private int calculateHandValue(List<String> hand) {
-        int value = 0;
-        int aces = 0;
-        for (String card : hand) {
-            String rank = card.split(" ")[0];
-            switch (rank) {
-                case "Jack":
-                case "Queen":
-                case "King":
-                    value += 10;
-                    break;
-                case "Ace":
-                    aces++;
-                    value += 11;
-                    break;
-                default:
-                    value += Integer.parseInt(rank);
-            }
-        }
-        while (value > 21 && aces > 0) {
-            value -= 10;
-            aces--;
-        }
-        return value;
-    }
-
-    private void broadcastGameState() {
-        synchronized (players) {
-            if (dealerHand == null || dealerHand.isEmpty()) return; // Prevent null/empty access
-            for (int i = 0; i < players.size(); i++) {
-                PlayerHandler player = players.get(i);
-                player.sendMessage("STATE|Dealer's Hand: " + dealerHand.get(0) + " (visible card)");
-                player.sendMessage("STATE|Your Hand: " + String.join(", ", player.getHand()));
-
-                // Send other players' hands
-                for (int j = 0; j < players.size(); j++) {
-                    if (i != j) {
-                        player.sendMessage("STATE|Player " + (j + 1) + "'s Hand: " + String.join(", ", players.get(j).getHand()));
-                    }
-                }
-            }
-        }
-    }
-
-    public void handlePlayerDisconnection(PlayerHandler player) {
-        synchronized (players) {
-            players.remove(player);
-            System.out.println("Player " + player.getPlayerId() + " removed from the game.");
-
-            // Check if the game should end due to insufficient players
-            if (players.size() < 2) {
-                System.out.println("Not enough players to continue. Ending game.");
-                gameInProgress = false;
-                broadcast("INFO|Game ended due to insufficient players. Waiting for new players...");
-                resetGameState();
-            } else {
-                // Broadcast updated game state to remaining players
-                broadcast("INFO|Player " + player.getPlayerId() + " has disconnected.");
-                broadcastGameState();
-            }
-        }
-    }
-
-    public void syncPlayerState(PlayerHandler player) {
-        if (dealerHand == null || dealerHand.isEmpty()) {
-            player.sendMessage("INFO|Game not started yet. Please wait.");
-            return;
-        }
-        player.sendMessage("STATE|Dealer's Hand: " + dealerHand.get(0) + " (visible card)");
-        for (int i = 0; i < players.size(); i++) {
-            player.sendMessage("STATE|Player " + (i + 1) + "'s Hand: " + String.join(", ", players.get(i).getHand()));
-        }
-    }
-
-    public void broadcast(String message) {
-        synchronized (players) {
-            for (PlayerHandler player : players) {
-                player.sendMessage(message);
-            }
-        }
-    }
-
-    private void resetGameState() {
-        synchronized (players) {
-            for (PlayerHandler player : players) {
-                player.reset();
-            }
-        }
-        deck = null; // Clear the deck for the next game
-        dealerHand = null; // Clear the dealer's hand
-        System.out.println("Game state reset. Waiting for players...");
-    }
-
-    public Deck getDeck() {
-        return deck;
-    }
-
-    private void shutdown() {
-        try {
-            serverSocket.close();
-            threadPool.shutdown();
-        } catch (IOException e) {
-            System.err.println("Error shutting down server: " + e.getMessage());
-        }
-    }
-
-    public static void main(String[] args) {
-        try {
-            BlackjackServer server = new BlackjackServer(12345);
-            server.run();
-        } catch (IOException e) {
-            System.err.println("Server error: " + e.getMessage());
-        }
-    }
-}
+package application.blackjackxgui;
+
+import java.io.*;
+import java.net.*;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class BlackjackServer {
+    private static final long SHUTDOWN_WAIT_MILLIS = 2000;
+
+    private final boolean useNio;
+    private final ExecutorService threadPool; // Blocking transport only: one read loop per seated or queued player
+    private final Set<SocketConnection> socketConnections = ConcurrentHashMap.newKeySet(); // Their connections, to close at shutdown
+    private final ExecutorService gameExecutor;
+    private final ExecutorService spectatorExecutor; // Delivery to spectators, and blocking read loops until a player is placed; virtual, as most of it waits on sockets
+    private final ScheduledThreadPoolExecutor timer; // Turn deadlines and queue position updates
+    private final TableManager tableManager;
+    private final WaitingRoom waitingRoom;
+    private final Sessions sessions;
+    private final long handshakeMillis;
+    private final int commandRate;
+    private final int commandBurst;
+    private final Journal journal;
+    private final Ledger ledger;
+    private final RoundStats stats;
+    private final HandHistory history;
+    private ServerSocket serverSocket;
+    private NioTransport nioTransport;
+    private MetricsEndpoint metricsEndpoint;
+    private NodeRegistry registry;
+    private String nodeId;
+    private ScheduledFuture<?> ledgerSnapshots;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    public BlackjackServer(ServerConfig config) throws IOException {
+        Log.setLevel(config.logLevel);
+        this.useNio = config.useNio();
+        this.handshakeMillis = config.handshakeMillis;
+        this.commandRate = config.commandRate;
+        this.commandBurst = config.commandBurst;
+        if (useNio) {
+            nioTransport = new NioTransport(config.port, config.ioThreads, commandRate, commandBurst, this::openConnection);
+            threadPool = null;
+        } else {
+            serverSocket = new ServerSocket(config.port, NioTransport.ACCEPT_BACKLOG);
+            threadPool = config.useVirtualThreads()
+                    ? Executors.newVirtualThreadPerTaskExecutor()
+                    : Executors.newFixedThreadPool(config.tables * Table.MAX_PLAYERS + config.waitingRoom); // Players only: spectators and handshakes read on virtual threads
+        }
+        // One task per table with a round in progress
+        gameExecutor = config.useVirtualThreads()
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newCachedThreadPool();
+        spectatorExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        timer = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "server-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true); // Most deadlines are cancelled by an action; don't keep them queued
+        sessions = new Sessions(timer, config.resumeGraceMillis);
+        ledger = new Ledger(config.startingBankroll, config.minBet, config.maxBet, config.ledger != null ? Path.of(config.ledger) : null);
+        if (config.ledger != null) {
+            ledgerSnapshots = timer.scheduleWithFixedDelay(ledger::snapshot, config.ledgerSnapshotMillis, config.ledgerSnapshotMillis, TimeUnit.MILLISECONDS);
+            // Players seated when the server stopped get the same grace to come back as after a dropped connection
+            timer.schedule(ledger::dropUnclaimed, config.resumeGraceMillis, TimeUnit.MILLISECONDS);
+        }
+        stats = config.statsWindowSeconds > 0
+                ? RoundStats.open(config.statsWindowSeconds, config.statsThreads, config.tables)
+                : RoundStats.disabled();
+        history = config.history != null ? HandHistory.open(Path.of(config.history)) : HandHistory.disabled();
+        if (config.journal != null) {
+            Path journalDirectory = Path.of(config.journal);
+            Map<Integer, JournalRecovery.TableState> recovered = JournalRecovery.recover(journalDirectory);
+            journal = Journal.open(journalDirectory);
+            tableManager = new TableManager(config, gameExecutor, timer, journal, ledger, stats, history, spectatorExecutor);
+            tableManager.restore(recovered);
+            Log.info("Journal {}: recovered {} tables", journalDirectory, recovered.size());
+        } else {
+            journal = Journal.disabled();
+            tableManager = new TableManager(config, gameExecutor, timer, journal, ledger, stats, history, spectatorExecutor);
+        }
+        tableManager.setSeatFreedListener(this::admitWaiting);
+        waitingRoom = new WaitingRoom(config.waitingRoom, config.shedPolicy);
+        timer.scheduleWithFixedDelay(waitingRoom::announcePositions, 1, 1, TimeUnit.SECONDS);
+        // Creating the platform MBean server loads and configures every JDK MXBean, which takes
+        // longer than the rest of startup put together; the first table needn't wait for it
+        Thread mbean = new Thread(Metrics::registerMBean, "metrics-mbean");
+        mbean.setDaemon(true);
+        mbean.start();
+        if (config.registry != null) {
+            registry = NodeRegistry.open(config.registry);
+            nodeId = config.nodeId != null ? config.nodeId : config.advertiseHost + "-" + getPort();
+            String host = config.advertiseHost;
+            timer.scheduleAtFixedRate(() -> publishLoad(host), 0, NodeRegistry.PUBLISH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            Log.info("Publishing to node registry {} as {}", config.registry, nodeId);
+        }
+        if (config.metricsPort > 0) {
+            metricsEndpoint = new MetricsEndpoint(config.metricsPort, stats);
+            Log.info("Metrics available at http://127.0.0.1:{}/metrics and /stats", metricsEndpoint.getPort());
+        }
+        Log.info("Blackjack server started on port {} with {} tables ({})", getPort(), config.tables,
+                (useNio ? "nio transport, " + config.ioThreads + " event loops" : "blocking transport")
+                        + ", " + config.threads + " threads");
+    }
+
+    public void run() {
+        if (useNio) {
+            try {
+                nioTransport.run();
+            } finally {
+                shutdown();
+            }
+            return;
+        }
+        try {
+            while (true) {
+                Socket clientSocket = serverSocket.accept();
+                SocketConnection connection;
+                try {
+                    connection = new SocketConnection(clientSocket, RateLimiter.create(commandRate, commandBurst));
+                } catch (IOException e) {
+                    Log.warn("Connection error with player: {}", e.getMessage());
+                    clientSocket.close();
+                    continue;
+                }
+                socketConnections.add(connection);
+                openConnection(connection);
+                startReadLoop(connection, spectatorExecutor); // Through the handshake, and for good if it spectates
+            }
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                Log.error("Error accepting client connection: {}", e.getMessage());
+            }
+        } finally {
+            shutdown();
+        }
+    }
+
+    // Runs the connection's read loop on the executor. A loop that stops for a placed player
+    // carries on in the player pool, so only players ever hold its threads; one that has
+    // ended is forgotten.
+    private void startReadLoop(SocketConnection connection, Executor executor) {
+        try {
+            executor.execute(() -> {
+                connection.run();
+                if (connection.isMoving()) {
+                    startReadLoop(connection, threadPool);
+                } else {
+                    socketConnections.remove(connection);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            socketConnections.remove(connection); // Shutting down
+            connection.close();
+        }
+    }
+
+    // A new connection first gets a short handshake in which it may resume a dropped seat or
+    // ask to spectate; it is only seated, queued or shed after that
+    private void openConnection(Connection connection) {
+        new Handshake(connection).start();
+    }
+
+    // Routes a new connection to a table with a free seat, or to the waiting room when every
+    // table is full or others are already waiting. Returns whoever now listens to it: the
+    // seated player or its place in the queue, or null if it was shed. resumedToken is the
+    // token of a player whose bankroll was restored, or null.
+    private ConnectionListener acceptConnection(Connection connection, String resumedToken) {
+        if (waitingRoom.isEmpty()) {
+            Table table = tableManager.assignSeat();
+            if (table != null) {
+                PlayerHandler player = new PlayerHandler(connection, table, sessions, resumedToken);
+                seat(connection, table, player);
+                return player;
+            }
+        }
+        WaitingRoom.Waiter waiter = waitingRoom.enqueue(connection, resumedToken);
+        if (waiter == null) {
+            Metrics.rejections.increment();
+            rejectConnection(connection);
+            return null;
+        }
+        admitWaiting(); // A seat may have been freed since assignSeat looked
+        return waiter;
+    }
+
+    // Hands a connection that opened with "RESUME <token>" to the player the token belongs to.
+    // A player the server lost in a restart is seated again with the bankroll the ledger
+    // restored for them. Returns the listener for it, or null if the session is unknown or over.
+    private ConnectionListener resumeConnection(Connection connection, String token) {
+        PlayerHandler player = sessions.get(token);
+        ConnectionListener listener = player != null ? player.resume(connection) : null;
+        if (listener == null && ledger.isRestored(token)) {
+            connection.send("INFO|The server has restarted. Your chips were kept; joining a new table.");
+            return acceptConnection(connection, token);
+        }
+        if (listener == null) {
+            connection.send("INFO|Your session has ended. Joining as a new player.");
+        }
+        return listener;
+    }
+
+    // Moves waiting clients into free seats, oldest first. Runs on the acceptor and on
+    // whichever thread freed a seat.
+    private void admitWaiting() {
+        while (!waitingRoom.isEmpty()) {
+            Table table = tableManager.assignSeat();
+            if (table == null) {
+                return;
+            }
+            WaitingRoom.Waiter waiter = waitingRoom.poll();
+            if (waiter == null) {
+                table.cancelReservation();
+                return;
+            }
+            PlayerHandler player = new PlayerHandler(waiter.getConnection(), table, sessions, waiter.getResumedToken());
+            if (!waiter.handOff(player)) {
+                table.cancelReservation(); // Left while waiting
+                continue;
+            }
+            seat(waiter.getConnection(), table, player);
+            String protocolRequest = waiter.getProtocolRequest();
+            if (protocolRequest != null) {
+                player.onLine(protocolRequest);
+            }
+        }
+    }
+
+    private void seat(Connection connection, Table table, PlayerHandler player) {
+        player.run(); // Welcome first: seating the last player starts the round
+        table.seatPlayer(player);
+        Metrics.accepts.increment();
+        Log.info("Player connected: {} (table {})", connection.getRemoteAddress(), table.getTableId());
+    }
+
+    private void rejectConnection(Connection connection) {
+        connection.send("INFO|The waiting room is full. Please try again later.");
+        connection.close();
+    }
+
+    // First listener on a connection. A client coming back after a dropped connection opens
+    // with "RESUME <token>" and a spectator with "SPECTATE <table>"; anyone else is seated as
+    // a new player on their first line, or once the handshake window passes in silence. Lines that arrive while the connection is
+    // being seated (the welcome may start the transport reading) are passed on in order once
+    // it has its listener.
+    private final class Handshake implements ConnectionListener {
+        private final Connection connection;
+        private final List<String> early = new ArrayList<>(1);
+        private ScheduledFuture<?> timeout;
+        private boolean decided;
+        private boolean closed;
+        private ConnectionListener next;
+
+        Handshake(Connection connection) {
+            this.connection = connection;
+        }
+
+        void start() {
+            connection.setListener(this);
+            timeout = timer.schedule(() -> {
+                if (decide()) {
+                    route(null);
+                }
+            }, handshakeMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized boolean decide() {
+            if (decided || closed) {
+                return false;
+            }
+            decided = true;
+            return true;
+        }
+
+        @Override
+        public void onLine(String line) {
+            ConnectionListener current;
+            synchronized (this) {
+                current = next;
+                if (current == null && decided) {
+                    early.add(line);
+                    return;
+                }
+            }
+            if (current != null) {
+                current.onLine(line);
+            } else if (decide()) {
+                timeout.cancel(false);
+                route(line);
+            }
+        }
+
+        private void route(String firstLine) {
+            ConnectionListener listener = null;
+            boolean spectating = false;
+            if (firstLine != null && firstLine.regionMatches(true, 0, BinaryProtocol.RESUME, 0, BinaryProtocol.RESUME.length())) {
+                listener = resumeConnection(connection, firstLine.substring(BinaryProtocol.RESUME.length()).trim());
+                firstLine = null; // Consumed, whether or not the session was still there
+            } else if (firstLine != null && firstLine.regionMatches(true, 0, BinaryProtocol.SPECTATE, 0, BinaryProtocol.SPECTATE.length())) {
+                listener = spectate(connection, firstLine.substring(BinaryProtocol.SPECTATE.length()).trim());
+                if (listener == null) {
+                    connection.close();
+                    return;
+                }
+                spectating = true;
+                firstLine = null;
+            }
+            if (listener == null) {
+                listener = acceptConnection(connection, null);
+            }
+            if (listener == null) {
+                return; // Shed and closed
+            }
+            boolean wasClosed;
+            synchronized (this) {
+                if (firstLine != null) {
+                    listener.onLine(firstLine);
+                }
+                for (String line : early) {
+                    listener.onLine(line);
+                }
+                early.clear();
+                next = listener;
+                connection.setListener(listener);
+                wasClosed = closed;
+            }
+            connection.placed(!spectating);
+            if (wasClosed) {
+                listener.onClose(); // Went away while being seated
+            }
+        }
+
+        @Override
+        public void onClose() {
+            ConnectionListener current;
+            synchronized (this) {
+                closed = true;
+                current = next;
+            }
+            if (current != null) {
+                current.onClose();
+            } else if (timeout != null) {
+                timeout.cancel(false);
+            }
+        }
+    }
+
+    // Attaches a connection that opened with "SPECTATE <table>" to that table's feed. Returns
+    // the listener for it, or null if there is no such table.
+    private ConnectionListener spectate(Connection connection, String tableId) {
+        Table table;
+        try {
+            table = tableManager.findTable(Integer.parseInt(tableId));
+        } catch (NumberFormatException e) {
+            table = null;
+        }
+        if (table == null) {
+            connection.send("INFO|There is no table " + tableId + ". Tables are numbered 1 to " + tableManager.getTableCount() + ".");
+            return null;
+        }
+        connection.send("INFO|Watching table " + table.getTableId() + ".");
+        Log.debug("Spectator {} watching table {}", connection.getRemoteAddress(), table.getTableId());
+        return table.getSpectatorFeed().subscribe(connection);
+    }
+
+    // Heartbeat for the router: free seats and queue length, stamped with the time
+    private void publishLoad(String host) {
+        registry.publish(new NodeInfo(nodeId, host, getPort(), tableManager.getFreeSeats(), waitingRoom.size(),
+                System.currentTimeMillis()));
+    }
+
+    public int getPort() {
+        return useNio ? nioTransport.getPort() : serverSocket.getLocalPort();
+    }
+
+    public void stop() {
+        shutdown();
+    }
+
+    public TableManager getTableManager() {
+        return tableManager;
+    }
+
+    // Stops taking connections, saves the bankrolls while everyone is still seated, then drops
+    // every client and stops the game threads before the timer, so nothing they do on the way
+    // out schedules onto a dead timer. Runs once, whether from stop() or the accept loop ending.
+    private void shutdown() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (serverSocket != null) {
+                serverSocket.close();
+            }
+            if (ledgerSnapshots != null) {
+                ledgerSnapshots.cancel(false);
+            }
+            ledger.snapshot();
+            if (nioTransport != null) {
+                nioTransport.close(); // Each event loop closes its connections as it stops
+            }
+            for (SocketConnection connection : socketConnections) {
+                connection.close();
+            }
+            if (threadPool != null) {
+                threadPool.shutdownNow();
+            }
+            gameExecutor.shutdownNow(); // Wakes game threads waiting on an action; they stand the player down
+            spectatorExecutor.shutdownNow();
+            try {
+                gameExecutor.awaitTermination(SHUTDOWN_WAIT_MILLIS, TimeUnit.MILLISECONDS); // Let them finish before the journal closes
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            timer.shutdownNow();
+            if (registry != null) {
+                registry.remove(nodeId);
+            }
+            journal.close();
+            history.close();
+            stats.close();
+            if (metricsEndpoint != null) {
+                metricsEndpoint.close();
+            }
+        } catch (IOException e) {
+            Log.error("Error shutting down server: {}", e.getMessage());
+        }
+    }
+
+    public static void main(String[] args) {
+        try {
+            BlackjackServer server = new BlackjackServer(ServerConfig.fromSystemProperties());
+            server.run();
+        } catch (IOException e) {
+            Log.error("Server error: {}", e.getMessage());
+        }
+    }
+}
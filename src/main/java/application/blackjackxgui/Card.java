@@ -0,0 +1,53 @@
+package application.blackjackxgui;
+
+// Cards are passed around as int ordinals (suit * 13 + rank) and only turned into
+// text such as "10 of Hearts" when written to the wire.
+public final class Card {
+    public static final int RANKS = 13;
+    public static final int SUITS = 4;
+    public static final int CARDS_PER_DECK = RANKS * SUITS;
+    public static final int ACE = 12; // Rank index of the ace; 2..10 are 0..8, then Jack, Queen, King
+
+    private static final String[] SUIT_NAMES = {"Hearts", "Diamonds", "Clubs", "Spades"};
+    private static final String[] RANK_NAMES = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "Jack", "Queen", "King", "Ace"};
+    private static final String[] NAMES = new String[CARDS_PER_DECK];
+    private static final byte[] VALUES = new byte[CARDS_PER_DECK];
+
+    static {
+        for (int suit = 0; suit < SUITS; suit++) {
+            for (int rank = 0; rank < RANKS; rank++) {
+                int card = suit * RANKS + rank;
+                NAMES[card] = RANK_NAMES[rank] + " of " + SUIT_NAMES[suit];
+                VALUES[card] = (byte) (rank == ACE ? 1 : Math.min(rank + 2, 10));
+            }
+        }
+    }
+
+    private Card() {
+    }
+
+    public static int of(int rank, int suit) {
+        return suit * RANKS + rank;
+    }
+
+    public static int rank(int card) {
+        return card % RANKS;
+    }
+
+    public static int suit(int card) {
+        return card / RANKS;
+    }
+
+    // Hard value: aces count as 1, face cards as 10
+    public static int value(int card) {
+        return VALUES[card];
+    }
+
+    public static boolean isAce(int card) {
+        return rank(card) == ACE;
+    }
+
+    public static String name(int card) {
+        return NAMES[card];
+    }
+}
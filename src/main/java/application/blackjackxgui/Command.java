@@ -0,0 +1,63 @@
+package application.blackjackxgui;
+
+import java.nio.charset.StandardCharsets;
+
+// What a seated player can send, decoded straight from the bytes of a line. Keywords match
+// ignoring ASCII case, as they always have, without building a String, so an action costs no
+// allocation between the socket and the game thread. BET and PROTOCOL match as a prefix
+// and carry the rest of the line as their argument.
+public enum Command {
+    HIT("HIT"),
+    STAND("STAND"),
+    DOUBLE("DOUBLE"),
+    SPLIT("SPLIT"),
+    INSURANCE("INSURANCE"),
+    HINT("HINT"),
+    DISCONNECT("DISCONNECT"),
+    BET("BET"),
+    PROTOCOL(BinaryProtocol.REQUEST),
+    UNKNOWN(null),
+    TIMEOUT(null); // Queued by the turn timer; never decoded, so clients can't send it
+
+    private static final Command[] DECODABLE = {HIT, STAND, DOUBLE, SPLIT, INSURANCE, HINT, DISCONNECT, BET, PROTOCOL};
+
+    private final byte[] keyword; // Upper case ASCII
+
+    Command(String keyword) {
+        this.keyword = keyword != null ? keyword.getBytes(StandardCharsets.US_ASCII) : null;
+    }
+
+    public static Command decode(byte[] line, int offset, int length) {
+        for (Command command : DECODABLE) {
+            if (command.matches(line, offset, length)) {
+                return command;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private boolean matches(byte[] line, int offset, int length) {
+        if (takesArgument() ? length < keyword.length : length != keyword.length) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length; i++) {
+            int b = line[offset + i];
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != keyword[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean takesArgument() {
+        return this == BET || this == PROTOCOL;
+    }
+
+    // The rest of a BET or PROTOCOL line, trimmed. Only these rare commands allocate.
+    public String argument(byte[] line, int offset, int length) {
+        return new String(line, offset + keyword.length, length - keyword.length, StandardCharsets.UTF_8).trim();
+    }
+}
@@ -0,0 +1,34 @@
+package application.blackjackxgui;
+
+// A client connection as seen by the game: outbound lines go through send, inbound
+// lines are pushed to the listener by whichever transport owns the socket.
+public interface Connection {
+    void send(String line);
+
+    // Writes pre-encoded lines as one write. The array may be shared with other
+    // connections and must not be modified afterwards.
+    void write(byte[] bytes);
+
+    // Closes the connection once any queued output has been written
+    void close();
+
+    String getRemoteAddress();
+
+    // Bytes written but not yet sent; transports whose writes block never hold any back
+    default int getQueuedBytes() {
+        return 0;
+    }
+
+    // Gives back what the command limiter charged for a line the game asked for, so a client
+    // playing its turns as fast as they come is never cut off
+    default void refundCommand() {
+    }
+
+    // Called by the handshake once it has seated, queued or resumed a player (true) or
+    // attached a spectator (false); the blocking transport moves a player's read loop onto
+    // the player threads
+    default void placed(boolean player) {
+    }
+
+    void setListener(ConnectionListener listener);
+}
@@ -0,0 +1,16 @@
+package application.blackjackxgui;
+
+import java.nio.charset.StandardCharsets;
+
+public interface ConnectionListener {
+    void onLine(String line);
+
+    // How transports deliver a line: its bytes without the line ending, in a buffer that is
+    // reused once this returns. Listeners on the action path decode them in place; the rest
+    // get a String.
+    default void onLine(byte[] line, int offset, int length) {
+        onLine(new String(line, offset, length, StandardCharsets.UTF_8));
+    }
+
+    void onClose();
+}
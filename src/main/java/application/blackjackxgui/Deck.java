@@ -1,36 +1,98 @@
-package application.blackjackxgui;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
-public class Deck {
-    private final List<String> cards;
-
-    public Deck() {
-        cards = new ArrayList<>();
-        String[] suits = {"Hearts", "Diamonds", "Clubs", "Spades"};
-        String[] ranks = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "Jack", "Queen", "King", "Ace"};
-
-        for (String suit : suits) {
-            for (String rank : ranks) {
-                cards.add(rank + " of " + suit);
-            }
-        }
-        List<String> sixDecks = new ArrayList<>(cards);
-        for (int i = 0; i < 5; i++) {
-            cards.addAll(sixDecks);
-        }
-        shuffle();
-    }
-
-    public void shuffle() {
-        Collections.shuffle(cards);
-    }
-
-    public String drawCard() {
-        if (cards.isEmpty()) {
-            throw new IllegalStateException("Deck is empty!");
-        }
-        return cards.remove(cards.size() - 1);
-    }
-}
\ No newline at end of file
+package application.blackjackxgui;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+// A reusable shoe. Cards are dealt from a cursor and the shoe is reshuffled in place once
+// the cut card is reached, so rounds between shuffles allocate nothing.
+public class Deck {
+    public static final int DECKS = 6;
+    public static final double PENETRATION = 0.75;
+
+    private final byte[] cards; // Card ordinals
+    private final int cutCard;
+    private final RandomGenerator random;
+    private long seed; // Seed of the current shuffle; with the cursor it pins down every card to come
+    private int cursor;
+
+    public Deck() {
+        this(DECKS, PENETRATION, new SplittableRandom());
+    }
+
+    // penetration is the fraction of the shoe dealt before the cut card forces a reshuffle.
+    // A seeded generator makes every shuffle reproducible.
+    public Deck(int decks, double penetration, RandomGenerator random) {
+        if (decks < 1 || penetration <= 0 || penetration > 1) {
+            throw new IllegalArgumentException("Invalid shoe: " + decks + " decks, penetration " + penetration);
+        }
+        this.cards = new byte[decks * Card.CARDS_PER_DECK];
+        this.cutCard = (int) (cards.length * penetration);
+        this.random = random;
+        shuffle();
+    }
+
+    // Shuffles with a fresh seed drawn from the shoe's generator
+    public void shuffle() {
+        shuffle(random.nextLong());
+    }
+
+    // Restores shoe order and runs Fisher-Yates, so the result depends only on the seed
+    public void shuffle(long seed) {
+        this.seed = seed;
+        SplittableRandom shuffler = new SplittableRandom(seed);
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = (byte) (i % Card.CARDS_PER_DECK);
+        }
+        for (int i = cards.length - 1; i > 0; i--) {
+            int j = shuffler.nextInt(i + 1);
+            byte card = cards[i];
+            cards[i] = cards[j];
+            cards[j] = card;
+        }
+        cursor = 0;
+    }
+
+    // True once the cut card has come out; checked between rounds
+    public boolean needsShuffle() {
+        return cursor >= cutCard;
+    }
+
+    public int drawCard() {
+        if (cursor == cards.length) {
+            shuffle(nextSeed(seed)); // Only past the cut card in an unusually long round
+        }
+        return cards[cursor++];
+    }
+
+    public int remaining() {
+        return cards.length - cursor;
+    }
+
+    public int size() {
+        return cards.length;
+    }
+
+    public int getCursor() {
+        return cursor;
+    }
+
+    // A shoe that runs out mid-round is reshuffled with a seed derived from the current one,
+    // so a recorded seed and a count of cards dealt are enough to reproduce every draw
+    private static long nextSeed(long seed) {
+        return seed * 0x9E3779B97F4A7C15L + 1;
+    }
+
+    // Puts the shoe back to a recorded shuffle, dealt up to the given number of cards
+    // (which may run past the end of the shoe, as drawCard does)
+    public void restore(long seed, int dealt) {
+        shuffle(seed);
+        while (dealt > cards.length) {
+            shuffle(nextSeed(this.seed));
+            dealt -= cards.length;
+        }
+        cursor = dealt;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,71 @@
+package application.blackjackxgui;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Registry kept as one small file per node in a shared directory. Each node rewrites only its
+// own file, through a temporary file and an atomic rename, so readers never see a torn entry
+// and no locking is needed between processes.
+public class FileNodeRegistry implements NodeRegistry {
+    private static final String SUFFIX = ".node";
+
+    private final Path directory;
+
+    public FileNodeRegistry(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void publish(NodeInfo node) {
+        String entry = node.host() + ' ' + node.port() + ' ' + node.freeSeats() + ' ' + node.waiting() + ' ' + node.updatedMillis();
+        try {
+            Path temp = Files.createTempFile(directory, node.id(), ".tmp");
+            Files.writeString(temp, entry);
+            Files.move(temp, directory.resolve(node.id() + SUFFIX), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Log.warn("Node {} not published: {}", node.id(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void remove(String nodeId) {
+        try {
+            Files.deleteIfExists(directory.resolve(nodeId + SUFFIX));
+        } catch (IOException e) {
+            Log.warn("Node {} not removed: {}", nodeId, e.getMessage());
+        }
+    }
+
+    @Override
+    public List<NodeInfo> nodes() {
+        List<NodeInfo> nodes = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(SUFFIX)) {
+                    continue;
+                }
+                try {
+                    String[] fields = Files.readString(file).trim().split(" ");
+                    nodes.add(new NodeInfo(name.substring(0, name.length() - SUFFIX.length()), fields[0],
+                            Integer.parseInt(fields[1]), Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                            Long.parseLong(fields[4])));
+                } catch (IOException | RuntimeException e) {
+                    // Removed while listing, or not a node file; skip it
+                }
+            }
+        } catch (IOException e) {
+            Log.warn("Node registry {} not readable: {}", directory, e.getMessage());
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,82 @@
+package application.blackjackxgui;
+
+import java.util.Arrays;
+
+// A hand of card ordinals with its total kept up to date as cards are added,
+// so reading the value never walks the cards.
+public class Hand {
+    private byte[] cards = new byte[12];
+    private int count;
+    private int hardTotal; // Aces counted as 1
+    private int aces;
+
+    public void add(int card) {
+        if (count == cards.length) {
+            cards = Arrays.copyOf(cards, count * 2); // Only reachable with a long run of small cards
+        }
+        cards[count++] = (byte) card;
+        hardTotal += Card.value(card);
+        if (Card.isAce(card)) {
+            aces++;
+        }
+    }
+
+    // Takes the last card back out, as a split does with the second card of a pair
+    public int removeLast() {
+        int card = cards[--count];
+        hardTotal -= Card.value(card);
+        if (Card.isAce(card)) {
+            aces--;
+        }
+        return card;
+    }
+
+    public void clear() {
+        count = 0;
+        hardTotal = 0;
+        aces = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int get(int index) {
+        return cards[index];
+    }
+
+    // Best total: one ace counts as 11 when that doesn't bust the hand
+    public int getValue() {
+        return isSoft() ? hardTotal + 10 : hardTotal;
+    }
+
+    public boolean isSoft() {
+        return aces > 0 && hardTotal + 10 <= 21;
+    }
+
+    // Two cards making 21
+    public boolean isBlackjack() {
+        return count == 2 && getValue() == 21;
+    }
+
+    public boolean isBusted() {
+        return hardTotal > 21;
+    }
+
+    // Card names separated by ", ", as sent in STATE lines
+    public String join() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(Card.name(cards[i]));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + join() + "]";
+    }
+}
@@ -0,0 +1,432 @@
+package application.blackjackxgui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+// Long-term archive of settled rounds, stored column by column so months of play stay small
+// and a scan (HistoryTool) reads only the columns its question needs.
+//
+// A table packs each settled round into a Row and hands it over; the "hand-history" thread
+// collects rows into blocks of up to BLOCK_ROUNDS rounds and writes a block when it is full or
+// FLUSH_MILLIS after its first round. As with Log, rows are dropped and counted if the thread
+// falls behind. Each server run starts a new segment, and a segment is closed before it
+// reaches SEGMENT_SIZE so a reader can map it whole.
+//
+// history-NNNNNN.dat holds the blocks back to back. history-NNNNNN.idx has an INDEX_ENTRY per
+// block, written after the block, so a reader can rule blocks out by time, table and upcard
+// without touching them; an entry whose block runs past the end of the data file is ignored.
+//   Index entry: i64 offset, i32 length, i32 rounds, i32 hands, i64 first time, i64 last time,
+//                i32 lowest table, i32 highest table, i32 upcard mask (bit n: hard value n)
+//   Block: i32 rounds, i32 hands, per column i32 raw and i32 deflated length, then each
+//          column deflated on its own
+// Round columns, one value per round:
+//   TIME          ms since the epoch as a zigzag varint delta from the previous round's
+//   TABLE, ROUND  varint
+//   UPCARD        u8 card ordinal
+//   DEALER        u8 card count, then the dealer's cards in the order drawn
+//   DEALER_TOTAL  u8 best total; over 21 is a bust
+//   INSURANCE     varint chips staked on insurance across the round
+//   HAND_COUNT    u8
+// Hand columns, one value per hand, by seat and then play order:
+//   SEAT, OUTCOME (Outcome ordinal), TOTAL  u8
+//   STAKE         varint
+//   CARDS         u8 card count, then the hand's cards
+public class HandHistory implements AutoCloseable {
+    public static final int TIME = 0;
+    public static final int TABLE = 1;
+    public static final int ROUND = 2;
+    public static final int UPCARD = 3;
+    public static final int DEALER = 4;
+    public static final int DEALER_TOTAL = 5;
+    public static final int INSURANCE = 6;
+    public static final int HAND_COUNT = 7;
+    public static final int SEAT = 8;
+    public static final int OUTCOME = 9;
+    public static final int TOTAL = 10;
+    public static final int STAKE = 11;
+    public static final int CARDS = 12;
+    public static final int COLUMNS = 13;
+
+    public static final int INDEX_ENTRY = 48;
+    public static final String PREFIX = "history-";
+    public static final String DATA = ".dat";
+    public static final String INDEX = ".idx";
+    static final int BLOCK_ROUNDS = 16_384;
+    static final long FLUSH_MILLIS = 10_000;
+    static final long SEGMENT_SIZE = 1L << 30;
+    private static final int QUEUE_CAPACITY = 8192;
+
+    private static final HandHistory DISABLED = new HandHistory();
+    private static final byte[] STOP = new byte[0]; // Wakes the history thread to close; compared by identity
+
+    private final BlockingQueue<byte[]> queue;
+    private final Writer writer;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    private HandHistory() {
+        queue = null;
+        writer = null;
+        thread = null;
+    }
+
+    private HandHistory(Path directory) throws IOException {
+        queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        writer = new Writer(directory);
+        thread = new Thread(this::run, "hand-history");
+        thread.setDaemon(true);
+        thread.start();
+        // The open block would otherwise be lost when the server is stopped with a signal
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "hand-history-close"));
+    }
+
+    public static HandHistory open(Path directory) throws IOException {
+        return new HandHistory(directory);
+    }
+
+    // Accepts every row and keeps nothing, for servers run without a history
+    public static HandHistory disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    // Called on the game thread with the round it has just packed; the row may be reused as
+    // soon as this returns
+    public void record(Row row) {
+        if (!isEnabled() || closed) {
+            return;
+        }
+        if (!queue.offer(row.toBytes())) {
+            Metrics.historyDropped.increment();
+        }
+    }
+
+    private void run() {
+        long sealAt = Long.MAX_VALUE;
+        try {
+            while (!closed) {
+                byte[] row = queue.poll(Math.max(0, sealAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                if (row != null && row != STOP) {
+                    if (writer.isEmpty()) {
+                        sealAt = System.currentTimeMillis() + FLUSH_MILLIS;
+                    }
+                    writer.add(ByteBuffer.wrap(row));
+                }
+                if (writer.isEmpty()) {
+                    sealAt = Long.MAX_VALUE;
+                } else if (System.currentTimeMillis() >= sealAt) {
+                    writer.seal();
+                    sealAt = Long.MAX_VALUE;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Not interrupted by close(), which would also close the files mid-write
+        } catch (IOException e) {
+            Log.error("Hand history stopped: {}", e.getMessage());
+            closed = true;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!isEnabled() || closed) {
+            return;
+        }
+        closed = true;
+        queue.offer(STOP); // If the queue is full the thread is awake anyway
+        try {
+            thread.join();
+            byte[] row;
+            while ((row = queue.poll()) != null) {
+                if (row != STOP) {
+                    writer.add(ByteBuffer.wrap(row));
+                }
+            }
+            writer.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            Log.warn("Error closing hand history: {}", e.getMessage());
+        }
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            list.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(INDEX);
+            }).sorted().forEach(files::add);
+        }
+        return files;
+    }
+
+    // The data file that goes with an index file
+    static Path dataFile(Path index) {
+        String name = index.getFileName().toString();
+        return index.resolveSibling(name.substring(0, name.length() - INDEX.length()) + DATA);
+    }
+
+    // One settled round, packed on the game thread for the history thread to take apart:
+    // i64 time, i32 table, i64 round, i64 insurance, u8 hand count, u8 dealer card count and
+    // cards, then per hand u8 seat, u8 outcome, i64 stake, u8 card count and cards.
+    public static final class Row {
+        private static final int INSURANCE_AT = 20;
+        private static final int HAND_COUNT_AT = 28;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        public Row begin(long time, int tableId, long round, Hand dealer) {
+            buffer.clear();
+            buffer.putLong(time).putInt(tableId).putLong(round).putLong(0).put((byte) 0);
+            cards(dealer);
+            return this;
+        }
+
+        public Row insurance(long chips) {
+            buffer.putLong(INSURANCE_AT, buffer.getLong(INSURANCE_AT) + chips);
+            return this;
+        }
+
+        public Row hand(int seat, Hand hand, Outcome outcome, long stake) {
+            buffer.put(HAND_COUNT_AT, (byte) (buffer.get(HAND_COUNT_AT) + 1));
+            buffer.put((byte) seat).put((byte) outcome.ordinal()).putLong(stake);
+            cards(hand);
+            return this;
+        }
+
+        private void cards(Hand hand) {
+            buffer.put((byte) hand.size());
+            for (int i = 0; i < hand.size(); i++) {
+                buffer.put((byte) hand.get(i));
+            }
+        }
+
+        byte[] toBytes() {
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+
+        // The packed row, for writing without a copy
+        ByteBuffer buffer() {
+            return buffer.duplicate().flip();
+        }
+    }
+
+    // A column being filled for the current block
+    private static final class Column {
+        private byte[] data = new byte[4096];
+        private int size;
+
+        void put(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = (byte) value;
+        }
+
+        // Seven bits at a time, low first, high bit set on every byte but the last
+        void putVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                put((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            put((int) value);
+        }
+    }
+
+    // Builds blocks and appends them to the current segment. Used by the history thread, and
+    // directly by HistoryTool's generator; not thread-safe.
+    static final class Writer implements AutoCloseable {
+        private final Path directory;
+        private final Column[] columns = new Column[COLUMNS];
+        private final Deflater deflater = new Deflater();
+        private final Hand scratch = new Hand(); // Totals the cards of each hand as they are copied
+        private byte[] deflated = new byte[64 * 1024];
+        private int segmentIndex;
+        private FileChannel data;
+        private FileChannel index;
+        private long dataSize;
+
+        // The open block
+        private int rounds;
+        private int hands;
+        private long previousTime;
+        private long firstTime;
+        private long lastTime;
+        private int lowestTable;
+        private int highestTable;
+        private int upcards;
+
+        Writer(Path directory) throws IOException {
+            this.directory = Files.createDirectories(directory);
+            for (int i = 0; i < COLUMNS; i++) {
+                columns[i] = new Column();
+            }
+            List<Path> existing = segments(directory);
+            if (!existing.isEmpty()) {
+                String name = existing.get(existing.size() - 1).getFileName().toString();
+                segmentIndex = Integer.parseInt(name.substring(PREFIX.length(), name.length() - INDEX.length()));
+            }
+            openNextSegment(); // Never appends to a segment another run may have left half written
+        }
+
+        boolean isEmpty() {
+            return rounds == 0;
+        }
+
+        void add(ByteBuffer row) throws IOException {
+            long time = row.getLong();
+            int tableId = row.getInt();
+            long round = row.getLong();
+            long insurance = row.getLong();
+            int handCount = row.get();
+            if (rounds == 0) {
+                previousTime = 0;
+                firstTime = time;
+                lastTime = time;
+                lowestTable = tableId;
+                highestTable = tableId;
+                upcards = 0;
+            }
+            firstTime = Math.min(firstTime, time);
+            lastTime = Math.max(lastTime, time);
+            lowestTable = Math.min(lowestTable, tableId);
+            highestTable = Math.max(highestTable, tableId);
+
+            long delta = time - previousTime;
+            columns[TIME].putVarLong((delta << 1) ^ (delta >> 63));
+            previousTime = time;
+            columns[TABLE].putVarLong(tableId);
+            columns[ROUND].putVarLong(round);
+            int upcard = row.get(row.position() + 1);
+            columns[UPCARD].put(upcard);
+            upcards |= 1 << Card.value(upcard);
+            columns[DEALER_TOTAL].put(cards(row, columns[DEALER]));
+            columns[INSURANCE].putVarLong(insurance);
+            columns[HAND_COUNT].put(handCount);
+            for (int h = 0; h < handCount; h++) {
+                columns[SEAT].put(row.get());
+                columns[OUTCOME].put(row.get());
+                columns[STAKE].putVarLong(row.getLong());
+                columns[TOTAL].put(cards(row, columns[CARDS]));
+            }
+            hands += handCount;
+            if (++rounds == BLOCK_ROUNDS) {
+                seal();
+            }
+        }
+
+        // Copies a count-prefixed run of cards into the column and returns their total
+        private int cards(ByteBuffer row, Column column) {
+            int count = row.get();
+            column.put(count);
+            scratch.clear();
+            for (int i = 0; i < count; i++) {
+                int card = row.get();
+                column.put(card);
+                scratch.add(card);
+            }
+            return scratch.getValue();
+        }
+
+        // Writes the open block, then its index entry
+        void seal() throws IOException {
+            if (rounds == 0) {
+                return;
+            }
+            int[] rawLengths = new int[COLUMNS];
+            int[] deflatedLengths = new int[COLUMNS];
+            int header = 8 + 8 * COLUMNS;
+            int length = header;
+            for (int i = 0; i < COLUMNS; i++) {
+                rawLengths[i] = columns[i].size;
+                deflatedLengths[i] = deflate(columns[i], length - header);
+                length += deflatedLengths[i];
+            }
+            if (dataSize + length > SEGMENT_SIZE && dataSize > 0) {
+                rollSegment();
+            }
+
+            ByteBuffer head = ByteBuffer.allocate(header).putInt(rounds).putInt(hands);
+            for (int i = 0; i < COLUMNS; i++) {
+                head.putInt(rawLengths[i]).putInt(deflatedLengths[i]);
+            }
+            long offset = dataSize;
+            writeFully(data, head.flip(), offset);
+            writeFully(data, ByteBuffer.wrap(deflated, 0, length - header), offset + header);
+            dataSize += length;
+
+            ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY)
+                    .putLong(offset).putInt(length).putInt(rounds).putInt(hands)
+                    .putLong(firstTime).putLong(lastTime)
+                    .putInt(lowestTable).putInt(highestTable).putInt(upcards);
+            writeFully(index, entry.flip(), index.size());
+
+            for (Column column : columns) {
+                column.size = 0;
+            }
+            rounds = 0;
+            hands = 0;
+        }
+
+        // Deflates a column onto the end of the block's buffer and returns its deflated length
+        private int deflate(Column column, int at) {
+            deflater.reset();
+            deflater.setInput(column.data, 0, column.size);
+            deflater.finish();
+            int start = at;
+            while (!deflater.finished()) {
+                if (at == deflated.length) {
+                    deflated = Arrays.copyOf(deflated, deflated.length * 2);
+                }
+                at += deflater.deflate(deflated, at, deflated.length - at);
+            }
+            return at - start;
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+
+        private void rollSegment() throws IOException {
+            data.close();
+            index.close();
+            openNextSegment();
+        }
+
+        private void openNextSegment() throws IOException {
+            segmentIndex++;
+            String name = String.format("%s%06d", PREFIX, segmentIndex);
+            data = FileChannel.open(directory.resolve(name + DATA), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            index = FileChannel.open(directory.resolve(name + INDEX), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            dataSize = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            seal();
+            data.force(true);
+            index.force(true);
+            data.close();
+            index.close();
+            deflater.end();
+        }
+    }
+}
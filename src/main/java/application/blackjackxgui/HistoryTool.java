@@ -0,0 +1,418 @@
+package application.blackjackxgui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Answers aggregate questions over a hand history (see HandHistory) on every core. Segments
+// are memory-mapped and read in place; the index rules blocks out by time, table and upcard
+// before their data is touched, and in the blocks that are scanned only the columns the report
+// needs are inflated (never seats, totals or the players' cards). The report is the one the
+// live /stats endpoint serves, so archived and live figures compare directly.
+//
+// Usage: java application.blackjackxgui.HistoryTool <historyDir> [--days n | --since yyyy-mm-dd]
+//            [--until yyyy-mm-dd] [--table id] [--upcard A|2..10]
+//        java application.blackjackxgui.HistoryTool generate <historyDir> <rounds> [days]
+// The dealer's bust rate behind a 6 over the last 30 days: <historyDir> --days 30 --upcard 6.
+// "generate" writes simulated rounds (three players at the minimum bet taking the action HINT
+// suggests, doubles and splits included, with the first seat insuring behind every ace; with
+// -Dblackjack.seed, -Dblackjack.decks and -Dblackjack.tables as for the server) spread evenly
+// over the last days (30 by default), to try queries on.
+public class HistoryTool {
+    private static final int BLOCK_HEADER = 8 + 8 * HandHistory.COLUMNS;
+    private static final long DAY_MILLIS = 86_400_000L;
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final long since; // Inclusive, ms since the epoch
+    private final long until; // Exclusive
+    private final int tableId; // 0 for every table
+    private final int upcard;  // Hard value, ace 1; 0 for every upcard
+    long blocks;
+    long blocksScanned;
+    long handsScanned;
+
+    // A block the index didn't rule out, in its mapped segment
+    private record Block(ByteBuffer segment, int offset, int rounds, long firstTime, long lastTime, int lowestTable, int highestTable) {
+    }
+
+    public HistoryTool(long since, long until, int tableId, int upcard) {
+        this.since = since;
+        this.until = until;
+        this.tableId = tableId;
+        this.upcard = upcard;
+    }
+
+    public RoundStats.Snapshot run(Path directory) throws IOException {
+        List<Block> selected = new ArrayList<>();
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (Path indexFile : HandHistory.segments(directory)) {
+            Path dataFile = HandHistory.dataFile(indexFile);
+            if (!Files.exists(dataFile)) {
+                continue;
+            }
+            ByteBuffer index = map(indexFile);
+            ByteBuffer segment = map(dataFile);
+            for (int at = 0; at + HandHistory.INDEX_ENTRY <= index.limit(); at += HandHistory.INDEX_ENTRY) {
+                long offset = index.getLong(at);
+                int length = index.getInt(at + 8);
+                if (offset + length > segment.limit()) {
+                    break; // The server stopped while writing this block
+                }
+                int rounds = index.getInt(at + 12);
+                int hands = index.getInt(at + 16);
+                long firstTime = index.getLong(at + 20);
+                long lastTime = index.getLong(at + 28);
+                int lowestTable = index.getInt(at + 36);
+                int highestTable = index.getInt(at + 40);
+                int upcards = index.getInt(at + 44);
+                blocks++;
+                if (lastTime < since || firstTime >= until
+                        || tableId > 0 && (tableId < lowestTable || tableId > highestTable)
+                        || upcard > 0 && (upcards & 1 << upcard) == 0) {
+                    continue;
+                }
+                selected.add(new Block(segment, (int) offset, rounds, firstTime, lastTime, lowestTable, highestTable));
+                blocksScanned++;
+                handsScanned += hands;
+                first = Math.min(first, firstTime);
+                last = Math.max(last, lastTime);
+            }
+        }
+
+        // One scanner per core, each taking the next block until none are left
+        AtomicInteger next = new AtomicInteger();
+        List<RoundStats.Snapshot> parts = IntStream.range(0, Runtime.getRuntime().availableProcessors())
+                .parallel()
+                .mapToObj(i -> new Scanner().scan(selected, next))
+                .toList();
+        RoundStats.Snapshot result = new RoundStats.Snapshot();
+        for (RoundStats.Snapshot part : parts) {
+            result.add(part);
+        }
+        if (!selected.isEmpty()) {
+            result.setSpanMillis(Math.min(until, last + 1) - Math.max(since, first));
+        }
+        return result;
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // Stays valid once the channel is closed
+        }
+    }
+
+    private final class Scanner {
+        private final Inflater inflater = new Inflater();
+        private final byte[][] columns = new byte[HandHistory.COLUMNS][];
+        private final int[] positions = new int[HandHistory.COLUMNS]; // Read position in each varint or card column
+        private final RoundStats.Snapshot result = new RoundStats.Snapshot();
+
+        RoundStats.Snapshot scan(List<Block> blocks, AtomicInteger next) {
+            try {
+                for (int i; (i = next.getAndIncrement()) < blocks.size(); ) {
+                    scan(blocks.get(i));
+                }
+            } catch (DataFormatException e) {
+                throw new IllegalStateException("Corrupt block in the hand history: " + e.getMessage(), e);
+            } finally {
+                inflater.end();
+            }
+            return result;
+        }
+
+        private void scan(Block block) throws DataFormatException {
+            // A block wholly inside the time range or at the one table asked for needn't be checked row by row
+            boolean checkTime = block.firstTime() < since || block.lastTime() >= until;
+            boolean checkTable = tableId > 0 && (block.lowestTable() != tableId || block.highestTable() != tableId);
+            ByteBuffer segment = block.segment();
+            int at = block.offset() + BLOCK_HEADER;
+            for (int column = 0; column < HandHistory.COLUMNS; column++) {
+                int raw = segment.getInt(block.offset() + 8 + 8 * column);
+                int deflated = segment.getInt(block.offset() + 12 + 8 * column);
+                boolean needed = switch (column) {
+                    case HandHistory.TIME -> checkTime;
+                    case HandHistory.TABLE -> checkTable;
+                    case HandHistory.ROUND, HandHistory.SEAT, HandHistory.TOTAL, HandHistory.CARDS -> false;
+                    default -> true;
+                };
+                if (needed) {
+                    inflate(column, segment.slice(at, deflated), raw);
+                }
+                at += deflated;
+            }
+
+            byte[] upcards = columns[HandHistory.UPCARD];
+            byte[] dealer = columns[HandHistory.DEALER];
+            byte[] dealerTotals = columns[HandHistory.DEALER_TOTAL];
+            byte[] handCounts = columns[HandHistory.HAND_COUNT];
+            byte[] outcomes = columns[HandHistory.OUTCOME];
+            long time = 0;
+            int dealerAt = 0;
+            int hand = 0;
+            for (int r = 0; r < block.rounds(); r++) {
+                boolean match = true;
+                if (checkTime) {
+                    long zigzag = varLong(HandHistory.TIME);
+                    time += (zigzag >>> 1) ^ -(zigzag & 1);
+                    match = time >= since && time < until;
+                }
+                if (checkTable && varLong(HandHistory.TABLE) != tableId) {
+                    match = false;
+                }
+                int up = Card.value(upcards[r]);
+                if (upcard > 0 && up != upcard) {
+                    match = false;
+                }
+                int dealerCards = dealer[dealerAt];
+                dealerAt += 1 + dealerCards;
+                int dealerTotal = dealerTotals[r];
+                long insurance = varLong(HandHistory.INSURANCE);
+                int handCount = handCounts[r];
+                if (!match) {
+                    for (int h = 0; h < handCount; h++) {
+                        varLong(HandHistory.STAKE);
+                    }
+                    hand += handCount;
+                    continue;
+                }
+                long wagered = insurance;
+                long paid = Rules.insurancePayout(insurance, dealerCards == 2 && dealerTotal == 21);
+                for (int h = 0; h < handCount; h++) {
+                    Outcome outcome = OUTCOMES[outcomes[hand++]];
+                    long stake = varLong(HandHistory.STAKE);
+                    wagered += stake;
+                    paid += Rules.payout(outcome, stake);
+                    result.addHand(outcome);
+                }
+                result.addRound(up, dealerTotal > 21, wagered, paid);
+            }
+        }
+
+        private void inflate(int column, ByteBuffer deflated, int raw) throws DataFormatException {
+            if (columns[column] == null || columns[column].length < raw) {
+                columns[column] = new byte[Math.max(raw, 64 * 1024)];
+            }
+            positions[column] = 0;
+            inflater.reset();
+            inflater.setInput(deflated);
+            int filled = 0;
+            while (filled < raw) {
+                int count = inflater.inflate(columns[column], filled, raw - filled);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new DataFormatException("column " + column + " ends early");
+                }
+                filled += count;
+            }
+        }
+
+        private long varLong(int column) {
+            byte[] data = columns[column];
+            int at = positions[column];
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[at++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            positions[column] = at;
+            return value;
+        }
+    }
+
+    // Plays rounds by the server's rules and writes them to a new segment of the history
+    static void generate(Path directory, long rounds, int days) throws IOException {
+        ServerConfig config = ServerConfig.fromSystemProperties();
+        long seed = config.seed != null ? config.seed : System.nanoTime();
+        Deck deck = new Deck(config.decks, config.penetration, new SplittableRandom(seed));
+        Hand dealerHand = new Hand();
+        Hand[][] playerHands = new Hand[Table.MAX_PLAYERS][Rules.MAX_HANDS];
+        long[][] stakes = new long[Table.MAX_PLAYERS][Rules.MAX_HANDS];
+        int[] handCounts = new int[Table.MAX_PLAYERS];
+        for (Hand[] seatHands : playerHands) {
+            for (int h = 0; h < seatHands.length; h++) {
+                seatHands[h] = new Hand();
+            }
+        }
+        long[] tableRounds = new long[config.tables];
+        long end = System.currentTimeMillis();
+        double millisPerRound = (double) days * DAY_MILLIS / rounds;
+        HandHistory.Row row = new HandHistory.Row();
+        long hands = 0;
+
+        long start = System.nanoTime();
+        try (HandHistory.Writer writer = new HandHistory.Writer(directory)) {
+            for (long round = 0; round < rounds; round++) {
+                if (deck.needsShuffle()) {
+                    deck.shuffle();
+                }
+                dealerHand.clear();
+                for (int seat = 0; seat < playerHands.length; seat++) {
+                    Hand hand = playerHands[seat][0];
+                    hand.clear();
+                    hand.add(deck.drawCard());
+                    hand.add(deck.drawCard());
+                    stakes[seat][0] = config.minBet;
+                    handCounts[seat] = 1;
+                }
+                dealerHand.add(deck.drawCard());
+                dealerHand.add(deck.drawCard());
+                int upcard = dealerHand.get(0);
+                // The first seat insures half its bet behind every ace; the dealer peeks before anyone plays
+                long insurance = Card.isAce(upcard) ? config.minBet / 2 : 0;
+                if (!Rules.dealerPeeks(upcard) || !dealerHand.isBlackjack()) {
+                    for (int seat = 0; seat < playerHands.length; seat++) {
+                        handCounts[seat] = playSeat(deck, playerHands[seat], stakes[seat], upcard);
+                    }
+                }
+                while (Rules.dealerHits(dealerHand)) {
+                    dealerHand.add(deck.drawCard());
+                }
+
+                int table = (int) (round % tableRounds.length);
+                long time = end - (long) ((rounds - round) * millisPerRound);
+                row.begin(time, table + 1, ++tableRounds[table], dealerHand);
+                row.insurance(insurance);
+                for (int seat = 0; seat < playerHands.length; seat++) {
+                    for (int h = 0; h < handCounts[seat]; h++) {
+                        Hand hand = playerHands[seat][h];
+                        row.hand(seat, hand, Rules.outcome(hand, handCounts[seat], dealerHand), stakes[seat][h]);
+                    }
+                    hands += handCounts[seat];
+                }
+                writer.add(row.buffer());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long bytes = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                bytes += Files.size(file);
+            }
+        }
+        System.out.printf("Wrote %,d rounds (%,d hands) in %.2f s with seed %d; %s now holds %,d bytes (%.1f per hand)%n",
+                rounds, hands, seconds, seed, directory, bytes, (double) bytes / hands);
+    }
+
+    // One seat's turn as PlayerHandler plays it, with a bankroll that always covers a double or
+    // split. Returns how many hands the seat ends with.
+    private static int playSeat(Deck deck, Hand[] hands, long[] stakes, int upcard) {
+        int handCount = 1;
+        for (int h = 0; h < handCount; h++) {
+            Hand hand = hands[h];
+            while (true) {
+                if (hand.size() == 1) {
+                    hand.add(deck.drawCard()); // Second card of a split hand
+                }
+                boolean splitAces = handCount > 1 && Card.isAce(hand.get(0));
+                boolean canSplit = Rules.isPair(hand) && handCount < Rules.MAX_HANDS;
+                if (hand.isBusted() || Rules.isNatural(hand, handCount)) {
+                    break;
+                }
+                int action = StrategyTable.action(hand, upcard, hand.size() == 2 && !splitAces, canSplit);
+                if (action == StrategyTable.SPLIT) {
+                    Hand spare = hands[handCount];
+                    for (int i = handCount; i > h + 1; i--) {
+                        hands[i] = hands[i - 1];
+                        stakes[i] = stakes[i - 1];
+                    }
+                    spare.clear();
+                    spare.add(hand.removeLast());
+                    hands[h + 1] = spare;
+                    stakes[h + 1] = stakes[h];
+                    handCount++;
+                } else if (splitAces || action == StrategyTable.STAND) {
+                    break; // Split aces take one card each
+                } else if (action == StrategyTable.DOUBLE) {
+                    stakes[h] *= 2;
+                    hand.add(deck.drawCard());
+                    break;
+                } else {
+                    hand.add(deck.drawCard());
+                }
+            }
+        }
+        return handCount;
+    }
+
+    private static long startOfDay(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static void usage() {
+        System.err.println("Usage: HistoryTool <historyDir> [--days n | --since yyyy-mm-dd] [--until yyyy-mm-dd] [--table id] [--upcard A|2..10]");
+        System.err.println("       HistoryTool generate <historyDir> <rounds> [days]");
+        System.exit(2);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("generate")) {
+            if (args.length < 3 || args.length > 4) {
+                usage();
+            }
+            generate(Path.of(args[1]), Long.parseLong(args[2]), args.length > 3 ? Integer.parseInt(args[3]) : 30);
+            return;
+        }
+        if (args.length == 0 || args.length % 2 == 0) {
+            usage();
+        }
+        long since = Long.MIN_VALUE;
+        long until = Long.MAX_VALUE;
+        int tableId = 0;
+        int upcard = 0;
+        StringBuilder title = new StringBuilder("History");
+        for (int i = 1; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--days" -> {
+                    since = System.currentTimeMillis() - Long.parseLong(value) * DAY_MILLIS;
+                    title.append(", last ").append(value).append(" days");
+                }
+                case "--since" -> {
+                    since = startOfDay(LocalDate.parse(value));
+                    title.append(", from ").append(value);
+                }
+                case "--until" -> {
+                    until = startOfDay(LocalDate.parse(value).plusDays(1)); // The whole day
+                    title.append(", to ").append(value);
+                }
+                case "--table" -> {
+                    tableId = Integer.parseInt(value);
+                    title.append(", table ").append(tableId);
+                }
+                case "--upcard" -> {
+                    upcard = value.equalsIgnoreCase("A") ? 1 : Integer.parseInt(value);
+                    if (upcard < 1 || upcard > 10) {
+                        usage();
+                    }
+                    title.append(", dealer showing ").append(value.toUpperCase());
+                }
+                default -> usage();
+            }
+        }
+
+        HistoryTool tool = new HistoryTool(since, until, tableId, upcard);
+        long start = System.nanoTime();
+        RoundStats.Snapshot result = tool.run(Path.of(args[0]));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.print(result.render(title.toString()));
+        System.out.printf("Scanned %,d of %,d blocks (%,d hands) in %.2f s, %,.0f hands/s on %d cores%n",
+                tool.blocksScanned, tool.blocks, tool.handsScanned, seconds, tool.handsScanned / seconds,
+                Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,27 @@
+package application.blackjackxgui;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Registry for nodes and a router running in one JVM, e.g. in local tests
+public class InMemoryNodeRegistry implements NodeRegistry {
+    static final InMemoryNodeRegistry SHARED = new InMemoryNodeRegistry();
+
+    private final ConcurrentMap<String, NodeInfo> nodes = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(NodeInfo node) {
+        nodes.put(node.id(), node);
+    }
+
+    @Override
+    public void remove(String nodeId) {
+        nodes.remove(nodeId);
+    }
+
+    @Override
+    public List<NodeInfo> nodes() {
+        return List.copyOf(nodes.values());
+    }
+}
@@ -0,0 +1,287 @@
+package application.blackjackxgui;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only record of every table event, written into memory-mapped segment files.
+//
+// An append is a copy into the mapped segment under a short lock; the OS owns those pages,
+// so a record survives the process dying as soon as append returns. Forcing them to disk
+// (for machine crashes) is left to a committer thread that runs every few milliseconds and
+// covers every record appended since its last pass with one force, so no action waits on it.
+//
+// Record: i32 length, i32 CRC32C of the payload, payload. The length is written last and a
+// zero length ends a segment, so recovery stops cleanly at a torn or missing record.
+// Payload: u8 type, i32 table, then per type:
+//   SHUFFLE      i64 seed, u16 cards in the shoe (Deck.shuffle(seed) rebuilds its order)
+//   ROUND_START  i64 round, i32 shoe cursor before the deal
+//   DEAL, HIT, DOUBLE  u8 seat, u8 card (HIT and DOUBLE go to the seat's current hand)
+//   STAND, SPLIT, INSURANCE  u8 seat
+//   DEALER_CARD  u8 card
+//   RESULT       u8 seat, u8 Outcome ordinal
+//   ROUND_END, ROUND_VOID  i64 round
+public class Journal implements AutoCloseable {
+    public static final int SHUFFLE = 1;
+    public static final int ROUND_START = 2;
+    public static final int DEAL = 3;
+    public static final int HIT = 4;
+    public static final int STAND = 5;
+    public static final int DEALER_CARD = 6;
+    public static final int RESULT = 7;
+    public static final int ROUND_END = 8;
+    public static final int ROUND_VOID = 9; // Round cut short by a crash, closed during recovery
+    public static final int SPLIT = 10;     // The seat's current hand split in two; the new hand follows it
+    public static final int DOUBLE = 11;    // Stake doubled and one card drawn, ending the hand
+    public static final int INSURANCE = 12;
+
+    static final int SEGMENT_SIZE = 64 << 20;
+    static final long COMMIT_INTERVAL_MILLIS = 5;
+    private static final int HEADER = 8;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".seg";
+
+    private static final Journal DISABLED = new Journal();
+
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ByteBuffer payload = ByteBuffer.allocate(64); // Built under the lock
+    private final CRC32C crc = new CRC32C();
+    private final Thread committer;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private volatile boolean dirty;
+    private volatile boolean closed;
+
+    private Journal() {
+        directory = null;
+        committer = null;
+    }
+
+    private Journal(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        List<Path> existing = segments(directory);
+        segmentIndex = existing.isEmpty() ? 0 : indexOf(existing.get(existing.size() - 1));
+        openNextSegment(); // Never appends to a segment written before a crash
+        committer = new Thread(this::commitLoop, "journal-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    public static Journal open(Path directory) throws IOException {
+        return new Journal(directory);
+    }
+
+    // Accepts every call and records nothing, for servers run without a journal
+    public static Journal disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    public void shuffle(int table, Deck deck) {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            begin(SHUFFLE, table).putLong(deck.getSeed()).putShort((short) deck.size());
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void roundStart(int table, long round, int cursor) {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            begin(ROUND_START, table).putLong(round).putInt(cursor);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Round events from DEAL to RESULT; arguments a type doesn't carry are ignored
+    public void event(int type, int table, int seat, int value) {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            ByteBuffer out = begin(type, table);
+            if (type != DEALER_CARD) {
+                out.put((byte) seat);
+            }
+            if (type != STAND && type != SPLIT && type != INSURANCE) {
+                out.put((byte) value);
+            }
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ROUND_END or ROUND_VOID
+    public void roundEnd(int type, int table, long round) {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            begin(type, table).putLong(round);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ByteBuffer begin(int type, int table) {
+        payload.clear();
+        return payload.put((byte) type).putInt(table);
+    }
+
+    private void commit() {
+        if (closed) {
+            return;
+        }
+        payload.flip();
+        int length = payload.remaining();
+        if (segment.remaining() < HEADER + length + 4) { // Room for a zero length after it
+            rollSegment();
+        }
+        crc.reset();
+        crc.update(payload.array(), 0, length);
+        int start = segment.position();
+        segment.putInt(start + 4, (int) crc.getValue());
+        segment.put(start + HEADER, payload.array(), 0, length);
+        segment.putInt(start, length); // Last, so a partial record reads as the end
+        segment.position(start + HEADER + length);
+        dirty = true;
+    }
+
+    private void rollSegment() {
+        try {
+            segment.force();
+            channel.close();
+            openNextSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void openNextSegment() throws IOException {
+        segmentIndex++;
+        Path file = directory.resolve(String.format("%s%06d%s", PREFIX, segmentIndex, SUFFIX));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+    }
+
+    // Group commit: one force covers everything appended since the previous one
+    private void commitLoop() {
+        while (!closed) {
+            try {
+                Thread.sleep(COMMIT_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            force();
+        }
+    }
+
+    private void force() {
+        if (!dirty) {
+            return;
+        }
+        MappedByteBuffer current;
+        lock.lock();
+        try {
+            dirty = false;
+            current = segment;
+        } finally {
+            lock.unlock();
+        }
+        current.force(); // Outside the lock; appends carry on meanwhile
+    }
+
+    @Override
+    public void close() {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            segment.force();
+            channel.close();
+        } catch (IOException e) {
+            Log.warn("Error closing journal: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+        committer.interrupt();
+    }
+
+    // Calls the visitor with each intact record's payload, oldest first, across all segments
+    public static void read(Path directory, Consumer<ByteBuffer> visitor) throws IOException {
+        CRC32C crc = new CRC32C();
+        for (Path file : segments(directory)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (segment.remaining() >= HEADER) {
+                    int start = segment.position();
+                    int length = segment.getInt(start);
+                    if (length <= 0 || length > segment.remaining() - HEADER) {
+                        break;
+                    }
+                    ByteBuffer record = segment.slice(start + HEADER, length);
+                    crc.reset();
+                    crc.update(record.duplicate());
+                    if ((int) crc.getValue() != segment.getInt(start + 4)) {
+                        Log.warn("Journal {}: corrupt record at offset {}; rest of segment skipped", file.getFileName(), start);
+                        break;
+                    }
+                    visitor.accept(record);
+                    segment.position(start + HEADER + length);
+                }
+            }
+        }
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            list.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).sorted().forEach(files::add);
+        }
+        return files;
+    }
+
+    private static int indexOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
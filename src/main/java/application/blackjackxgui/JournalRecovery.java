@@ -0,0 +1,87 @@
+package application.blackjackxgui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+// Rebuilds each table's state as of the last intact journal record: the shoe and how far it
+// had been dealt, the last round number, and any round that never reached its end.
+public class JournalRecovery {
+
+    public static final class TableState {
+        long shoeSeed;
+        int shoeSize; // 0 until the table's first shuffle is seen
+        int cursor;
+        long round;
+        boolean inFlight;
+        final Hand dealerHand = new Hand();
+        final Hand[] seats = new Hand[Table.MAX_PLAYERS];
+
+        TableState() {
+            for (int i = 0; i < seats.length; i++) {
+                seats[i] = new Hand();
+            }
+        }
+
+        public long getRound() {
+            return round;
+        }
+
+        public boolean isInFlight() {
+            return inFlight;
+        }
+
+        // Hands of the round that was cut short, for the recovery log
+        public String describeRound() {
+            StringBuilder text = new StringBuilder("dealer ").append(dealerHand);
+            for (int i = 0; i < seats.length; i++) {
+                if (seats[i].size() > 0) {
+                    text.append(", player ").append(i + 1).append(' ').append(seats[i]);
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    public static Map<Integer, TableState> recover(Path directory) throws IOException {
+        Map<Integer, TableState> tables = new HashMap<>();
+        Journal.read(directory, record -> apply(tables, record));
+        return tables;
+    }
+
+    private static void apply(Map<Integer, TableState> tables, ByteBuffer record) {
+        int type = record.get();
+        TableState state = tables.computeIfAbsent(record.getInt(), id -> new TableState());
+        switch (type) {
+            case Journal.SHUFFLE -> {
+                state.shoeSeed = record.getLong();
+                state.shoeSize = record.getShort() & 0xFFFF;
+                state.cursor = 0;
+            }
+            case Journal.ROUND_START -> {
+                state.round = record.getLong();
+                state.cursor = record.getInt();
+                state.inFlight = true;
+                state.dealerHand.clear();
+                for (Hand seat : state.seats) {
+                    seat.clear();
+                }
+            }
+            case Journal.DEAL, Journal.HIT, Journal.DOUBLE -> {
+                int seat = record.get();
+                state.seats[seat].add(record.get());
+                state.cursor++;
+            }
+            case Journal.DEALER_CARD -> {
+                state.dealerHand.add(record.get());
+                state.cursor++;
+            }
+            case Journal.ROUND_END, Journal.ROUND_VOID -> state.inFlight = false;
+            default -> {
+                // STAND, SPLIT, INSURANCE and RESULT don't change what needs restoring
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package application.blackjackxgui;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+// Chip bankrolls for every player. There is no ledger-wide lock: each account guards its own
+// balance, so wagers and payouts at thousands of tables only ever touch their own players'
+// accounts, and a table settles its whole round in one call. Snapshots read each account
+// optimistically and never hold up a table.
+//
+// An account is kept under its player's session token, the one identity a client brings back,
+// from the moment the player sits down until they leave for good. Accounts restored from the
+// snapshot wait for their players to resume with that token after a restart; those not
+// claimed by the time dropUnclaimed() runs are forgotten, like any other ended session.
+// Players without a token (sessions turned off) can't be recognised again, so their accounts
+// are never kept.
+//
+// Snapshot file: a "# ledger snapshot <epoch millis>" line, then "<token> <chips>" per
+// account. Chips still staked on a round are counted as the player's, since a round cut
+// short by a restart is voided.
+public class Ledger {
+    private final long startingBalance;
+    private final long minBet;
+    private final long maxBet;
+    private final Path snapshotFile;
+    private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>(); // Seated players, by token
+    private final ConcurrentHashMap<String, Account> restored = new ConcurrentHashMap<>(); // Not yet claimed
+    private final LongAdder updates = new LongAdder(); // Lets a snapshot be skipped when nothing moved
+    private long snapshotUpdates = -1;
+
+    public Ledger(long startingBalance, long minBet, long maxBet, Path snapshotFile) throws IOException {
+        if (minBet < 1 || maxBet < minBet) {
+            throw new IllegalArgumentException("Bets need 1 <= minBet <= maxBet");
+        }
+        this.startingBalance = startingBalance;
+        this.minBet = minBet;
+        this.maxBet = maxBet;
+        this.snapshotFile = snapshotFile;
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+            load(snapshotFile);
+        }
+    }
+
+    private void load(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.trim().split(" ");
+            restored.put(fields[0], new Account(fields[0], Long.parseLong(fields[1])));
+        }
+        Log.info("Ledger {}: restored {} accounts", file, restored.size());
+    }
+
+    // The account for a player sitting down with the given session token: the one restored
+    // for it, if the player is back after a restart, or else a fresh one holding the starting
+    // bankroll. A null token gets an account that isn't kept.
+    public Account openAccount(String token) {
+        if (token == null) {
+            return new Account(null, startingBalance);
+        }
+        Account account = restored.remove(token);
+        if (account == null) {
+            account = new Account(token, startingBalance);
+        } else {
+            Log.info("Ledger: restored account claimed with {} chips", account.getChips());
+        }
+        accounts.put(token, account);
+        updates.increment();
+        return account;
+    }
+
+    // Whether an account restored from the snapshot is waiting for this token
+    public boolean isRestored(String token) {
+        return restored.containsKey(token);
+    }
+
+    // Forgets the account of a player who has left for good. Chips still staked on the round
+    // are settled on it as usual; they just aren't kept afterwards.
+    public void closeAccount(Account account) {
+        if (account.token != null && accounts.remove(account.token, account)) {
+            updates.increment();
+        }
+    }
+
+    // Forgets the restored accounts nobody has claimed; run once the players seated when the
+    // server stopped have had the resume grace period to come back
+    public void dropUnclaimed() {
+        int count = restored.size();
+        if (count > 0) {
+            restored.clear();
+            updates.increment();
+            Log.info("Ledger: dropped {} restored accounts that were not claimed", count);
+        }
+    }
+
+    public long getMinBet() {
+        return minBet;
+    }
+
+    public long getMaxBet() {
+        return maxBet;
+    }
+
+    // Applies a round's results account by account; the house totals are updated once
+    public void settle(Batch batch) {
+        long staked = 0;
+        long paid = 0;
+        for (int i = 0; i < batch.size; i++) {
+            batch.accounts[i].settle(batch.stakes[i], batch.payouts[i]);
+            staked += batch.stakes[i];
+            paid += batch.payouts[i];
+        }
+        Metrics.chipsWagered.add(staked);
+        Metrics.chipsPaid.add(paid);
+        batch.clear();
+    }
+
+    // Writes every balance to the snapshot file if any changed since the last snapshot.
+    // Runs on the server timer; the file is replaced atomically, so a reader never sees half.
+    public synchronized void snapshot() {
+        long seen = updates.sum();
+        if (snapshotFile == null || seen == snapshotUpdates) {
+            return;
+        }
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                out.write("# ledger snapshot " + System.currentTimeMillis());
+                out.newLine();
+                for (Account account : accounts.values()) {
+                    out.write(account.token + " " + account.getChips());
+                    out.newLine();
+                }
+                for (Account account : restored.values()) {
+                    out.write(account.token + " " + account.getChips());
+                    out.newLine();
+                }
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshotUpdates = seen;
+        } catch (IOException e) {
+            Log.warn("Ledger snapshot to {} failed: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    // One player's chips: the balance free to bet, plus what is staked on the current round
+    public final class Account {
+        private final String token; // Null for an account that isn't kept
+        private final StampedLock lock = new StampedLock(); // Uncontended except against a snapshot read
+        private long balance;
+        private long staked;
+
+        private Account(String token, long balance) {
+            this.token = token;
+            this.balance = balance;
+        }
+
+        // Moves up to amount from the balance onto the table; returns what was actually staked
+        long hold(long amount) {
+            long stamp = lock.writeLock();
+            try {
+                long stake = Math.min(amount, balance);
+                balance -= stake;
+                staked += stake;
+                return stake;
+            } finally {
+                lock.unlockWrite(stamp);
+                updates.increment();
+            }
+        }
+
+        private void settle(long stake, long payout) {
+            long stamp = lock.writeLock();
+            try {
+                staked -= stake;
+                balance += payout;
+            } finally {
+                lock.unlockWrite(stamp);
+                updates.increment();
+            }
+        }
+
+        public long getBalance() {
+            while (true) {
+                long stamp = lock.tryOptimisticRead();
+                long value = balance;
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+                Thread.onSpinWait(); // A wager or payout is mid-update; it takes nanoseconds
+            }
+        }
+
+        // Balance plus stakes, read as one consistent pair
+        private long getChips() {
+            while (true) {
+                long stamp = lock.tryOptimisticRead();
+                long value = balance + staked;
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    // A table's settlements for one round, reused round after round
+    public static final class Batch {
+        private final Account[] accounts;
+        private final long[] stakes;
+        private final long[] payouts;
+        private int size;
+
+        public Batch(int capacity) {
+            accounts = new Account[capacity];
+            stakes = new long[capacity];
+            payouts = new long[capacity];
+        }
+
+        public void add(Account account, long stake, long payout) {
+            accounts[size] = account;
+            stakes[size] = stake;
+            payouts[size] = payout;
+            size++;
+        }
+
+        private void clear() {
+            Arrays.fill(accounts, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package application.blackjackxgui;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Headless bots for soak and scale tests. Each bot is a virtual thread with one socket that
+// negotiates bin1, plays every turn with a PlayerStrategy and keeps going round after round.
+// Reports how long it took to seat every bot, rounds completed per second and the turn
+// round trip: from sending HIT or STAND to the server's answer. Optional spectators watch
+// the tables the bots fill, spread evenly, and count the frames they are sent.
+//
+// Usage: java application.blackjackxgui.LoadGenerator [players] [seconds] [standOn|basic] [spectators]
+// against -Dblackjack.host (default 127.0.0.1) and -Dblackjack.port.
+public class LoadGenerator {
+    private static final byte[] HIT = "HIT\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] STAND = "STAND\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PROTOCOL = (BinaryProtocol.REQUEST + BinaryProtocol.VERSION + "\n").getBytes(StandardCharsets.US_ASCII);
+
+    private final String host;
+    private final int port;
+    private final PlayerStrategy strategy;
+    private final LongAdder seated = new LongAdder();
+    private final LongAdder rounds = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder spectatorFrames = new LongAdder();
+    private final Histogram turnNanos = new Histogram();
+    private volatile boolean running = true;
+
+    public LoadGenerator(String host, int port, PlayerStrategy strategy) {
+        this.host = host;
+        this.port = port;
+        this.strategy = strategy;
+    }
+
+    private void play(Socket[] sockets, int index, CountDownLatch allSeated) {
+        try (Socket socket = new Socket(host, port)) {
+            sockets[index] = socket; // Closed by run() to end the bot
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            OutputStream out = socket.getOutputStream();
+            out.write(PROTOCOL);
+
+            // Text (welcome, queue position) until the server switches to binary, which it
+            // does once the bot has a seat
+            String line;
+            while (!BinaryProtocol.ACCEPTED.equals(line = readLine(in))) {
+                if (line == null) {
+                    if (running) {
+                        failures.increment();
+                    }
+                    return;
+                }
+            }
+            seated.increment();
+            allSeated.countDown();
+
+            Hand hand = new Hand();
+            int upcard = 0;
+            long sentAt = 0;
+            byte[] frame = new byte[BinaryProtocol.MAX_FRAME];
+            ByteBuffer payload = ByteBuffer.wrap(frame);
+            while (running) {
+                int length = in.readUnsignedShort();
+                in.readFully(frame, 0, length);
+                payload.clear().limit(length);
+                switch (payload.get()) {
+                    case BinaryProtocol.DEALER_UPCARD -> upcard = payload.get();
+                    case BinaryProtocol.INITIAL_HAND -> readHand(payload, hand);
+                    case BinaryProtocol.PLAYING_HAND -> {
+                        payload.get(); // Hand index and count; the bot only needs the cards
+                        payload.get();
+                        readHand(payload, hand);
+                    }
+                    case BinaryProtocol.DREW -> {
+                        payload.get(); // The drawn card is also the last card of the hand
+                        readHand(payload, hand);
+                        sentAt = recordTurn(sentAt);
+                    }
+                    case BinaryProtocol.STOOD -> sentAt = recordTurn(sentAt);
+                    case BinaryProtocol.YOUR_TURN -> {
+                        sentAt = System.nanoTime();
+                        out.write(strategy.shouldHit(hand, upcard) ? HIT : STAND);
+                    }
+                    case BinaryProtocol.PAYOUT -> {
+                        rounds.increment(); // One per round, after a result for each hand
+                        hand.clear();
+                    }
+                    default -> {
+                        // Other players' hands, turn markers, sequence numbers, results and wagers
+                    }
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                failures.increment(); // Refused, or dropped by the server mid-run
+            }
+        }
+    }
+
+    private void watch(Socket[] sockets, int index, int tableId) {
+        try (Socket socket = new Socket(host, port)) {
+            sockets[index] = socket;
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            OutputStream out = socket.getOutputStream();
+            out.write((BinaryProtocol.SPECTATE + tableId + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(PROTOCOL);
+            String line;
+            while (!BinaryProtocol.ACCEPTED.equals(line = readLine(in))) {
+                if (line == null) {
+                    if (running) {
+                        failures.increment();
+                    }
+                    return;
+                }
+            }
+            byte[] frame = new byte[BinaryProtocol.MAX_FRAME];
+            while (running) {
+                int length = in.readUnsignedShort();
+                in.readFully(frame, 0, length);
+                spectatorFrames.increment();
+            }
+        } catch (IOException e) {
+            if (running) {
+                failures.increment();
+            }
+        }
+    }
+
+    private long recordTurn(long sentAt) {
+        if (sentAt != 0) {
+            turnNanos.record(System.nanoTime() - sentAt);
+        }
+        return 0;
+    }
+
+    private static void readHand(ByteBuffer payload, Hand hand) {
+        hand.clear();
+        int count = payload.get() & 0xFF;
+        for (int i = 0; i < count; i++) {
+            hand.add(payload.get());
+        }
+    }
+
+    private static String readLine(DataInputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                return null;
+            }
+            if (b == '\n') {
+                return line.toString(StandardCharsets.UTF_8);
+            }
+            line.write(b);
+        }
+    }
+
+    public void run(int players, int seconds, int spectators) throws InterruptedException {
+        CountDownLatch allSeated = new CountDownLatch(players);
+        Thread[] bots = new Thread[players + spectators];
+        Socket[] sockets = new Socket[players + spectators];
+        long start = System.nanoTime();
+        for (int i = 0; i < players; i++) {
+            int index = i;
+            bots[i] = Thread.ofVirtual().name("bot-" + i).start(() -> play(sockets, index, allSeated));
+        }
+        int tables = Math.max(1, players / Table.MAX_PLAYERS);
+        for (int i = 0; i < spectators; i++) {
+            int index = players + i;
+            int tableId = i % tables + 1;
+            bots[index] = Thread.ofVirtual().name("spectator-" + i).start(() -> watch(sockets, index, tableId));
+        }
+        boolean complete = allSeated.await(60, TimeUnit.SECONDS);
+        double ramp = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Seated %,d of %,d players in %.2f s%s%n", seated.sum(), players, ramp,
+                complete ? "" : " (gave up waiting for the rest)");
+
+        long roundsBefore = rounds.sum();
+        long framesBefore = spectatorFrames.sum();
+        long measureStart = System.nanoTime();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        double elapsed = (System.nanoTime() - measureStart) / 1e9;
+        long played = rounds.sum() - roundsBefore;
+        long watched = spectatorFrames.sum() - framesBefore;
+        running = false;
+        for (Socket socket : sockets) {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Closing anyway
+                }
+            }
+        }
+        for (Thread bot : bots) {
+            bot.join();
+        }
+
+        System.out.printf("Rounds completed: %,d in %.1f s (%,.0f per second, counted once per player)%n", played, elapsed, played / elapsed);
+        System.out.printf("Turn round trip: p50 %.3f ms, p99 %.3f ms, max %.3f ms over %,d turns%n",
+                turnNanos.percentile(0.5) / 1e6, turnNanos.percentile(0.99) / 1e6, turnNanos.getMax() / 1e6, turnNanos.getCount());
+        if (spectators > 0) {
+            System.out.printf("Spectator frames: %,d to %,d spectators (%,.0f per second)%n", watched, spectators, watched / elapsed);
+        }
+        System.out.printf("Connection failures or drops: %,d%n", failures.sum());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int players = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        PlayerStrategy strategy = PlayerStrategy.parse(args.length > 2 ? args[2] : String.valueOf(Rules.DEALER_STANDS_ON));
+        int spectators = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        ServerConfig config = ServerConfig.fromSystemProperties();
+        String host = System.getProperty("blackjack.host", "127.0.0.1");
+        Log.setLevel(config.logLevel);
+        new LoadGenerator(host, config.port, strategy).run(players, seconds, spectators);
+    }
+}
@@ -0,0 +1,129 @@
+package application.blackjackxgui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Leveled console logger. Callers pass a pattern with {} placeholders and the raw arguments;
+// a disabled level returns after one comparison, and enabled records are formatted and
+// printed by a background writer so game and event-loop threads never wait on the console.
+// When the writer falls behind, records are dropped and counted rather than queued forever.
+public final class Log {
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    private static final int QUEUE_CAPACITY = 8192;
+
+    private record Entry(Level level, String pattern, Object a, Object b, Object c) {}
+
+    private static volatile Level level = Level.INFO;
+    private static final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    static {
+        Thread writer = new Thread(Log::writeLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::drain, "log-drain"));
+    }
+
+    private Log() {
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    public static boolean isEnabled(Level candidate) {
+        return candidate.compareTo(level) >= 0;
+    }
+
+    public static void debug(String pattern, Object a) {
+        log(Level.DEBUG, pattern, a, null, null);
+    }
+
+    public static void debug(String pattern, Object a, Object b) {
+        log(Level.DEBUG, pattern, a, b, null);
+    }
+
+    public static void info(String message) {
+        log(Level.INFO, message, null, null, null);
+    }
+
+    public static void info(String pattern, Object a) {
+        log(Level.INFO, pattern, a, null, null);
+    }
+
+    public static void info(String pattern, Object a, Object b) {
+        log(Level.INFO, pattern, a, b, null);
+    }
+
+    public static void info(String pattern, Object a, Object b, Object c) {
+        log(Level.INFO, pattern, a, b, c);
+    }
+
+    public static void warn(String pattern, Object a) {
+        log(Level.WARN, pattern, a, null, null);
+    }
+
+    public static void warn(String pattern, Object a, Object b) {
+        log(Level.WARN, pattern, a, b, null);
+    }
+
+    public static void warn(String pattern, Object a, Object b, Object c) {
+        log(Level.WARN, pattern, a, b, c);
+    }
+
+    public static void error(String pattern, Object a) {
+        log(Level.ERROR, pattern, a, null, null);
+    }
+
+    private static void log(Level recordLevel, String pattern, Object a, Object b, Object c) {
+        if (recordLevel.compareTo(level) < 0) {
+            return;
+        }
+        if (!queue.offer(new Entry(recordLevel, pattern, a, b, c))) {
+            Metrics.logDropped.increment();
+        }
+    }
+
+    private static void writeLoop() {
+        while (true) {
+            try {
+                print(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // Prints whatever the writer had not reached when the JVM exits
+    private static void drain() {
+        List<Entry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (Entry entry : remaining) {
+            print(entry);
+        }
+        System.out.flush();
+        System.err.flush();
+    }
+
+    private static void print(Entry entry) {
+        StringBuilder line = new StringBuilder(entry.pattern().length() + 32);
+        line.append(entry.level()).append(entry.level().name().length() == 4 ? "  " : " ");
+        Object[] args = {entry.a(), entry.b(), entry.c()};
+        int next = 0;
+        String pattern = entry.pattern();
+        int from = 0;
+        int at;
+        while (next < args.length && (at = pattern.indexOf("{}", from)) >= 0) {
+            line.append(pattern, from, at).append(args[next++]);
+            from = at + 2;
+        }
+        line.append(pattern, from, pattern.length());
+        if (entry.level().compareTo(Level.WARN) >= 0) {
+            System.err.println(line);
+        } else {
+            System.out.println(line);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package application.blackjackxgui;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide server telemetry. Counters are LongAdders and latencies are Histograms, so
+// the game and event-loop threads that update them never contend on a lock; readers (the
+// HTTP endpoint and JMX) sum them on demand.
+public final class Metrics implements MetricsMXBean {
+    public static final LongAdder accepts = new LongAdder();
+    public static final LongAdder rejections = new LongAdder();
+    public static final LongAdder activeTables = new LongAdder();  // Tables with a round running
+    public static final LongAdder seatedPlayers = new LongAdder();
+    public static final LongAdder waitingClients = new LongAdder();
+    public static final LongAdder rounds = new LongAdder();        // Rounds played to the end
+    public static final LongAdder bytesWritten = new LongAdder();
+    public static final LongAdder slowClientDrops = new LongAdder();
+    public static final LongAdder floodDrops = new LongAdder();   // Sent commands faster than the rate limit
+    public static final LongAdder turnTimeouts = new LongAdder();
+    public static final LongAdder hints = new LongAdder();
+    public static final LongAdder sessionResumes = new LongAdder();
+    public static final LongAdder spectators = new LongAdder();
+    public static final LongAdder spectatorOverruns = new LongAdder(); // Fell a whole ring behind
+    public static final LongAdder chipsWagered = new LongAdder(); // Counted as rounds settle
+    public static final LongAdder chipsPaid = new LongAdder();
+    public static final LongAdder logDropped = new LongAdder();
+    public static final LongAdder statsDropped = new LongAdder(); // Settled rounds a RoundStats thread had no room for
+    public static final LongAdder historyDropped = new LongAdder(); // Settled rounds the hand history had no room for
+    // From the moment a player's action arrives to the flush that shows its result to the table
+    public static final Histogram actionToBroadcastNanos = new Histogram();
+    // A connection's queued outbound bytes, sampled each time a write is queued
+    public static final Histogram outboundQueueBytes = new Histogram();
+
+    private static final Metrics INSTANCE = new Metrics();
+
+    // Rounds per second is averaged over at least one second between readers
+    private long rateSampleNanos = System.nanoTime();
+    private long rateSampleRounds;
+    private double roundsPerSecond;
+
+    private Metrics() {
+    }
+
+    // Safe to call from every server in the JVM; the first registers
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("application.blackjackxgui:type=Metrics");
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            Log.warn("Metrics MBean not registered: {}", e.getMessage());
+        }
+    }
+
+    // Prometheus text exposition format
+    public static String render() {
+        StringBuilder out = new StringBuilder(1024);
+        counter(out, "blackjack_accepts_total", "Connections given a seat", INSTANCE.getAccepts());
+        counter(out, "blackjack_rejections_total", "Connections shed because the waiting room was full", INSTANCE.getRejections());
+        gauge(out, "blackjack_active_tables", "Tables with a round in progress", INSTANCE.getActiveTables());
+        gauge(out, "blackjack_seated_players", "Players currently seated", INSTANCE.getSeatedPlayers());
+        gauge(out, "blackjack_waiting_clients", "Connections queued for a seat", INSTANCE.getWaitingClients());
+        counter(out, "blackjack_rounds_total", "Rounds played to the end", INSTANCE.getRounds());
+        gauge(out, "blackjack_rounds_per_second", "Completed rounds per second", INSTANCE.getRoundsPerSecond());
+        counter(out, "blackjack_bytes_written_total", "Bytes written to client sockets", INSTANCE.getBytesWritten());
+        counter(out, "blackjack_slow_client_drops_total", "Connections dropped for a full outbound queue", INSTANCE.getSlowClientDrops());
+        counter(out, "blackjack_flood_drops_total", "Connections dropped for sending commands too fast", INSTANCE.getFloodDrops());
+        counter(out, "blackjack_turn_timeouts_total", "Turns auto-stood because the player did not act in time", INSTANCE.getTurnTimeouts());
+        counter(out, "blackjack_hints_total", "Strategy hints served", INSTANCE.getHints());
+        counter(out, "blackjack_session_resumes_total", "Dropped players who reconnected to their seat", INSTANCE.getSessionResumes());
+        gauge(out, "blackjack_spectators", "Connections watching a table", INSTANCE.getSpectators());
+        counter(out, "blackjack_spectator_overruns_total", "Spectators resynced or dropped after falling a whole buffer behind", INSTANCE.getSpectatorOverruns());
+        counter(out, "blackjack_chips_wagered_total", "Chips staked on settled rounds", INSTANCE.getChipsWagered());
+        counter(out, "blackjack_chips_paid_total", "Chips paid back to players, stakes included", INSTANCE.getChipsPaid());
+        counter(out, "blackjack_log_dropped_total", "Log records dropped because the writer fell behind", INSTANCE.getLogDropped());
+        counter(out, "blackjack_stats_dropped_total", "Settled rounds left out of the windowed stats because their thread fell behind", INSTANCE.getStatsDropped());
+        counter(out, "blackjack_history_dropped_total", "Settled rounds left out of the hand history because its writer fell behind", INSTANCE.getHistoryDropped());
+        summary(out, "blackjack_action_to_broadcast_seconds", "Player action to table broadcast latency", actionToBroadcastNanos, 1e9);
+        summary(out, "blackjack_outbound_queue_bytes", "Per-connection outbound queue depth when a write is queued", outboundQueueBytes, 1);
+        return out.toString();
+    }
+
+    // render() followed by one server's windowed round stats, server-wide
+    public static String render(RoundStats stats) {
+        StringBuilder out = new StringBuilder(render());
+        RoundStats.Snapshot window = stats.snapshot();
+        String over = " over the last " + stats.getWindowSeconds() + " s";
+        gauge(out, "blackjack_window_rounds_per_minute", "Rounds settled per minute" + over, window.getRoundsPerMinute());
+        gauge(out, "blackjack_window_house_edge", "Share of chips staked that the house kept" + over, window.getHouseEdge());
+        String name = "blackjack_window_hand_outcome_ratio";
+        out.append("# HELP ").append(name).append(" Share of hands by how they ended").append(over).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        for (Outcome outcome : Outcome.values()) {
+            out.append(name).append("{outcome=\"").append(outcome.name().toLowerCase()).append("\"} ")
+                    .append(window.getRate(outcome)).append('\n');
+        }
+        name = "blackjack_window_dealer_bust_ratio";
+        out.append("# HELP ").append(name).append(" Share of rounds the dealer busted, by upcard").append(over).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        for (int value = 1; value <= 10; value++) {
+            out.append(name).append("{upcard=\"").append(value == 1 ? "A" : String.valueOf(value)).append("\"} ")
+                    .append(window.getDealerBustRate(value)).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" counter\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" gauge\n");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void summary(StringBuilder out, String name, String help, Histogram histogram, double unit) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : new double[] {0.5, 0.9, 0.99, 0.999}) {
+            out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.percentile(quantile) / unit).append('\n');
+        }
+        out.append(name).append("_max ").append(histogram.getMax() / unit).append('\n');
+        out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+    }
+
+    @Override
+    public long getAccepts() {
+        return accepts.sum();
+    }
+
+    @Override
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    @Override
+    public long getActiveTables() {
+        return activeTables.sum();
+    }
+
+    @Override
+    public long getSeatedPlayers() {
+        return seatedPlayers.sum();
+    }
+
+    @Override
+    public long getWaitingClients() {
+        return waitingClients.sum();
+    }
+
+    @Override
+    public long getRounds() {
+        return rounds.sum();
+    }
+
+    @Override
+    public synchronized double getRoundsPerSecond() {
+        long now = System.nanoTime();
+        long elapsed = now - rateSampleNanos;
+        if (elapsed >= TimeUnit.SECONDS.toNanos(1)) {
+            long total = rounds.sum();
+            roundsPerSecond = (total - rateSampleRounds) * 1e9 / elapsed;
+            rateSampleRounds = total;
+            rateSampleNanos = now;
+        }
+        return roundsPerSecond;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getSlowClientDrops() {
+        return slowClientDrops.sum();
+    }
+
+    @Override
+    public long getFloodDrops() {
+        return floodDrops.sum();
+    }
+
+    @Override
+    public long getTurnTimeouts() {
+        return turnTimeouts.sum();
+    }
+
+    @Override
+    public long getHints() {
+        return hints.sum();
+    }
+
+    @Override
+    public long getSessionResumes() {
+        return sessionResumes.sum();
+    }
+
+    @Override
+    public long getSpectators() {
+        return spectators.sum();
+    }
+
+    @Override
+    public long getSpectatorOverruns() {
+        return spectatorOverruns.sum();
+    }
+
+    @Override
+    public long getChipsWagered() {
+        return chipsWagered.sum();
+    }
+
+    @Override
+    public long getChipsPaid() {
+        return chipsPaid.sum();
+    }
+
+    @Override
+    public long getActionToBroadcastP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(actionToBroadcastNanos.percentile(0.5));
+    }
+
+    @Override
+    public long getActionToBroadcastP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(actionToBroadcastNanos.percentile(0.99));
+    }
+
+    @Override
+    public long getOutboundQueueP99Bytes() {
+        return outboundQueueBytes.percentile(0.99);
+    }
+
+    @Override
+    public long getOutboundQueueMaxBytes() {
+        return outboundQueueBytes.getMax();
+    }
+
+    @Override
+    public long getLogDropped() {
+        return logDropped.sum();
+    }
+
+    @Override
+    public long getStatsDropped() {
+        return statsDropped.sum();
+    }
+
+    @Override
+    public long getHistoryDropped() {
+        return historyDropped.sum();
+    }
+}
@@ -0,0 +1,71 @@
+package application.blackjackxgui;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+// Serves Metrics.render() at http://127.0.0.1:<port>/metrics, and the windowed round stats
+// as a plain-text report at /stats (every table) or /stats?table=<id>. Bound to loopback
+// only; a scraper or tunnel on the same host is expected to collect it.
+public class MetricsEndpoint {
+    private final HttpServer server;
+    private final RoundStats stats;
+
+    public MetricsEndpoint(int port, RoundStats stats) throws IOException {
+        this.stats = stats;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/stats", this::handleStats);
+        server.start(); // One dispatcher thread is plenty for a scraper
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        String body = stats.isEnabled() ? Metrics.render(stats) : Metrics.render();
+        respond(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", body);
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        if (!stats.isEnabled()) {
+            respond(exchange, 404, "text/plain; charset=utf-8", "Windowed stats are off (blackjack.statsWindowSeconds=0)\n");
+            return;
+        }
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null) {
+            respond(exchange, 200, "text/plain; charset=utf-8", stats.snapshot().render("All tables"));
+            return;
+        }
+        int tableId;
+        try {
+            tableId = query.startsWith("table=") ? Integer.parseInt(query.substring("table=".length())) : -1;
+        } catch (NumberFormatException e) {
+            tableId = -1;
+        }
+        if (tableId < 1) {
+            respond(exchange, 400, "text/plain; charset=utf-8", "Usage: /stats or /stats?table=<id>\n");
+            return;
+        }
+        respond(exchange, 200, "text/plain; charset=utf-8", stats.snapshot(tableId).render("Table " + tableId));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,52 @@
+package application.blackjackxgui;
+
+// JMX view of Metrics, registered as application.blackjackxgui:type=Metrics
+public interface MetricsMXBean {
+    long getAccepts();
+
+    long getRejections();
+
+    long getActiveTables();
+
+    long getSeatedPlayers();
+
+    long getWaitingClients();
+
+    long getRounds();
+
+    double getRoundsPerSecond();
+
+    long getBytesWritten();
+
+    long getSlowClientDrops();
+
+    long getFloodDrops();
+
+    long getTurnTimeouts();
+
+    long getHints();
+
+    long getSessionResumes();
+
+    long getSpectators();
+
+    long getSpectatorOverruns();
+
+    long getChipsWagered();
+
+    long getChipsPaid();
+
+    long getActionToBroadcastP50Micros();
+
+    long getActionToBroadcastP99Micros();
+
+    long getOutboundQueueP99Bytes();
+
+    long getOutboundQueueMaxBytes();
+
+    long getLogDropped();
+
+    long getStatsDropped();
+
+    long getHistoryDropped();
+}
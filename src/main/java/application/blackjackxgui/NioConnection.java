@@ -0,0 +1,235 @@
+package application.blackjackxgui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Non-blocking connection owned by one event loop. Inbound bytes are framed into lines;
+// outbound lines are queued by any thread and copied through a direct buffer by the loop.
+public class NioConnection implements Connection {
+    static final int READ_BUFFER_SIZE = 512; // Also the longest accepted line
+    static final int WRITE_BUFFER_SIZE = 2048;
+    static final int MAX_QUEUED_BYTES = 64 * 1024; // Slow consumers past this are dropped
+
+    private final SocketChannel channel;
+    private final NioTransport.EventLoop loop;
+    private final String remoteAddress;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private final byte[] lineBytes = new byte[READ_BUFFER_SIZE];
+    private final RateLimiter limiter; // Null when commands aren't limited
+    private final ConcurrentLinkedQueue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedBytes = new AtomicInteger();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean closing;
+    private volatile ConnectionListener listener;
+    private SelectionKey key;
+
+    public NioConnection(SocketChannel channel, NioTransport.EventLoop loop, RateLimiter limiter) {
+        this.channel = channel;
+        this.loop = loop;
+        this.limiter = limiter;
+        String address;
+        try {
+            address = String.valueOf(channel.getRemoteAddress());
+        } catch (IOException e) {
+            address = "unknown";
+        }
+        this.remoteAddress = address;
+    }
+
+    @Override
+    public void send(String line) {
+        write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void write(byte[] bytes) {
+        enqueue(ByteBuffer.wrap(bytes)); // Each recipient gets its own view of the shared bytes
+    }
+
+    private void enqueue(ByteBuffer buffer) {
+        if (closing || closed.get()) {
+            return;
+        }
+        int queued = queuedBytes.addAndGet(buffer.remaining());
+        Metrics.outboundQueueBytes.record(queued);
+        if (queued > MAX_QUEUED_BYTES) {
+            Log.warn("Dropping slow client {}: outbound queue full", remoteAddress);
+            Metrics.slowClientDrops.increment();
+            closing = true;
+            writeQueue.clear();
+            scheduleFlush();
+            return;
+        }
+        writeQueue.add(buffer);
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            loop.schedule(this);
+        }
+    }
+
+    @Override
+    public void close() {
+        closing = true;
+        scheduleFlush();
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return remoteAddress;
+    }
+
+    @Override
+    public void refundCommand() {
+        if (limiter != null) {
+            limiter.refund();
+        }
+    }
+
+    @Override
+    public void setListener(ConnectionListener listener) {
+        this.listener = listener;
+    }
+
+    // Runs on the loop thread: registers on first use, then drains the write queue
+    void onScheduled(Selector selector) {
+        flushScheduled.set(false);
+        if (closed.get()) {
+            return;
+        }
+        if (key == null) {
+            try {
+                key = channel.register(selector, SelectionKey.OP_READ, this);
+            } catch (ClosedChannelException e) {
+                closeNow();
+                return;
+            }
+        }
+        flush();
+    }
+
+    void onReadable() {
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            closeNow();
+            return;
+        }
+
+        readBuffer.flip();
+        int lineStart = 0;
+        for (int i = readBuffer.position(); i < readBuffer.limit() && !closing; i++) {
+            if (readBuffer.get(i) == '\n') {
+                deliverLine(lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        if (closing) {
+            readBuffer.clear(); // Being dropped: nothing more it sends is acted on
+            return;
+        }
+        readBuffer.position(lineStart);
+        readBuffer.compact();
+        if (!readBuffer.hasRemaining()) {
+            Log.warn("Dropping client {}: line too long", remoteAddress);
+            closeNow();
+        }
+    }
+
+    private void deliverLine(int start, int end) {
+        if (end > start && readBuffer.get(end - 1) == '\r') {
+            end--;
+        }
+        if (limiter != null && !limiter.tryAcquire(System.nanoTime())) {
+            Log.warn("Dropping client {}: more than {} commands per second", remoteAddress, limiter.getRate());
+            Metrics.floodDrops.increment();
+            send(RateLimiter.NOTICE);
+            close();
+            return;
+        }
+        int length = end - start;
+        readBuffer.get(start, lineBytes, 0, length);
+        ConnectionListener current = listener;
+        if (current != null) {
+            current.onLine(lineBytes, 0, length);
+        }
+    }
+
+    void onWritable() {
+        flush();
+    }
+
+    private void flush() {
+        try {
+            while (true) {
+                ByteBuffer head;
+                while (writeBuffer.hasRemaining() && (head = writeQueue.peek()) != null) {
+                    int count = Math.min(head.remaining(), writeBuffer.remaining());
+                    int limit = head.limit();
+                    head.limit(head.position() + count);
+                    writeBuffer.put(head);
+                    head.limit(limit);
+                    if (!head.hasRemaining()) {
+                        writeQueue.poll();
+                    }
+                    queuedBytes.addAndGet(-count);
+                }
+
+                writeBuffer.flip();
+                Metrics.bytesWritten.add(channel.write(writeBuffer));
+                boolean partial = writeBuffer.hasRemaining();
+                writeBuffer.compact();
+                if (partial) {
+                    // Socket buffer is full: wait for OP_WRITE instead of spinning
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+                    return;
+                }
+                if (writeQueue.isEmpty()) {
+                    key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                    if (closing) {
+                        closeNow();
+                    }
+                    return;
+                }
+            }
+        } catch (IOException | CancelledKeyException e) {
+            closeNow();
+        }
+    }
+
+    void closeNow() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            Log.warn("Error closing client channel: {}", e.getMessage());
+        }
+        ConnectionListener current = listener;
+        if (current != null) {
+            current.onClose();
+        }
+    }
+
+    @Override
+    public int getQueuedBytes() {
+        return queuedBytes.get();
+    }
+}
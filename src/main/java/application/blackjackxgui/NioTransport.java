@@ -0,0 +1,168 @@
+package application.blackjackxgui;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+// Selector-based transport: a blocking acceptor hands channels to a few event loops,
+// each of which multiplexes reads and writes for all of its connections.
+public class NioTransport implements Runnable {
+    static final int ACCEPT_BACKLOG = 1024; // Room for a burst of connects; the default of 50 resets the overflow
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] loops;
+    private final Consumer<Connection> acceptHandler;
+    private final int commandRate;
+    private final int commandBurst;
+
+    // commandRate and commandBurst size each connection's RateLimiter; a rate of 0 turns it off
+    public NioTransport(int port, int loopCount, int commandRate, int commandBurst, Consumer<Connection> acceptHandler) throws IOException {
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.bind(new InetSocketAddress(port), ACCEPT_BACKLOG);
+        this.acceptHandler = acceptHandler;
+        this.commandRate = commandRate;
+        this.commandBurst = commandBurst;
+        this.loops = new EventLoop[Math.max(1, loopCount)];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(i);
+        }
+    }
+
+    @Override
+    public void run() {
+        for (EventLoop loop : loops) {
+            loop.start();
+        }
+        int next = 0;
+        try {
+            while (serverChannel.isOpen()) {
+                SocketChannel channel = serverChannel.accept();
+                try {
+                    channel.configureBlocking(false);
+                    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                } catch (IOException e) {
+                    // Only this client is lost, such as one that reset as soon as it connected
+                    Log.warn("Connection error with player: {}", e.getMessage());
+                    try {
+                        channel.close();
+                    } catch (IOException closeError) {
+                        // Nothing more to release; keep accepting
+                    }
+                    continue;
+                }
+                EventLoop loop = loops[next];
+                next = (next + 1) % loops.length;
+
+                // The handler installs its listener before the loop starts reading
+                NioConnection connection = new NioConnection(channel, loop, RateLimiter.create(commandRate, commandBurst));
+                acceptHandler.accept(connection);
+                loop.schedule(connection);
+            }
+        } catch (IOException e) {
+            if (serverChannel.isOpen()) {
+                Log.error("Error accepting client connection: {}", e.getMessage());
+            }
+        } finally {
+            close();
+        }
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public void close() {
+        try {
+            serverChannel.close();
+        } catch (IOException e) {
+            Log.warn("Error closing server channel: {}", e.getMessage());
+        }
+        for (EventLoop loop : loops) {
+            loop.close();
+        }
+    }
+
+    static final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final ConcurrentLinkedQueue<NioConnection> pending = new ConcurrentLinkedQueue<>();
+        private volatile boolean running = true;
+
+        EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "nio-loop-" + index);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        // Called from any thread when a connection needs registering or has output to flush
+        void schedule(NioConnection connection) {
+            pending.add(connection);
+            selector.wakeup();
+        }
+
+        boolean inLoop() {
+            return Thread.currentThread() == thread;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                    NioConnection connection;
+                    while ((connection = pending.poll()) != null) {
+                        connection.onScheduled(selector);
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        NioConnection selected = (NioConnection) key.attachment();
+                        if (key.isValid() && key.isReadable()) {
+                            selected.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            selected.onWritable();
+                        }
+                    }
+                } catch (IOException | ClosedSelectorException e) {
+                    if (running) {
+                        Log.error("Event loop error: {}", e.getMessage());
+                    }
+                }
+            }
+            closeConnections();
+        }
+
+        // The loop closes its connections and the selector itself on the way out
+        void close() {
+            running = false;
+            selector.wakeup();
+        }
+
+        // Runs on the loop thread once it has stopped: drops every client it still holds, so
+        // the game hears each of them leave
+        private void closeConnections() {
+            for (SelectionKey key : new ArrayList<>(selector.keys())) {
+                ((NioConnection) key.attachment()).closeNow();
+            }
+            NioConnection connection;
+            while ((connection = pending.poll()) != null) {
+                connection.closeNow();
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                Log.warn("Error closing selector: {}", e.getMessage());
+            }
+        }
+    }
+}
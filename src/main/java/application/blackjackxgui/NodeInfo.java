@@ -0,0 +1,10 @@
+package application.blackjackxgui;
+
+// One server node as seen by the router: where to reach it and how much room it has
+public record NodeInfo(String id, String host, int port, int freeSeats, int waiting, long updatedMillis) {
+
+    // A node that stops publishing (crashed or partitioned) drops out of routing
+    public boolean isLive(long nowMillis) {
+        return nowMillis - updatedMillis <= NodeRegistry.STALE_AFTER_MILLIS;
+    }
+}
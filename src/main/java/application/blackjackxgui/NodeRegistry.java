@@ -0,0 +1,30 @@
+package application.blackjackxgui;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// Where nodes publish their load and the router looks them up. Every table lives on exactly
+// one node for its whole life, so knowing a node's free seats is all the router needs: a
+// player is routed to a node once and the node seats them at one of its own tables.
+public interface NodeRegistry {
+    long PUBLISH_INTERVAL_MILLIS = 1000;
+    long STALE_AFTER_MILLIS = 5 * PUBLISH_INTERVAL_MILLIS;
+
+    void publish(NodeInfo node);
+
+    void remove(String nodeId);
+
+    // Every node that has published, live or not
+    List<NodeInfo> nodes();
+
+    // "memory" is shared by everything in this JVM; "file:<dir>" by every process on the host
+    static NodeRegistry open(String spec) {
+        if ("memory".equalsIgnoreCase(spec)) {
+            return InMemoryNodeRegistry.SHARED;
+        }
+        if (spec.startsWith("file:")) {
+            return new FileNodeRegistry(Path.of(spec.substring("file:".length())));
+        }
+        throw new IllegalArgumentException("Unknown node registry: " + spec);
+    }
+}
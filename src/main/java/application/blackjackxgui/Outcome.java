@@ -0,0 +1,20 @@
+package application.blackjackxgui;
+
+public enum Outcome {
+    BUST("You lost! You're busted."), // Player went over 21 and loses whatever the dealer does
+    WIN("Congratulations! You win!"),
+    PUSH("It's a tie!"),
+    LOSS("You lost. Dealer wins."),
+    BLACKJACK("Blackjack! You win 3 to 2."); // A natural the dealer doesn't match; last, as ordinals are stored
+
+    private final String message;
+
+    Outcome(String message) {
+        this.message = message;
+    }
+
+    // Text shown to the player, in RESULT| lines and by the client for binary results
+    public String getMessage() {
+        return message;
+    }
+}
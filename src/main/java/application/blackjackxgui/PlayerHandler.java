@@ -1,144 +1,673 @@
-package application.blackjackxgui;
-
-import java.io.*;
-import java.net.*;
-import java.util.ArrayList;
-import java.util.List;
-
-public class PlayerHandler implements Runnable {
-    private static int nextId = 1; // Static counter for unique player IDs
-
-    private final int playerId;
-    private final Socket socket;
-    private final BlackjackServer server;
-    private PrintWriter out;
-    private BufferedReader in;
-    private final List<String> hand;
-    private boolean stood;
-    private boolean busted;
-
-    public PlayerHandler(Socket socket, BlackjackServer server) {
-        this.playerId = nextId++;
-        this.socket = socket;
-        this.server = server;
-        this.hand = new ArrayList<>();
-        this.stood = false;
-        this.busted = false;
-    }
-
-    @Override
-    public void run() {
-        try {
-            out = new PrintWriter(socket.getOutputStream(), true);
-            in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
-            out.println("Welcome to Multiplayer Blackjack!");
-
-            // Synchronize with the server's current game state
-            server.syncPlayerState(this);
-        } catch (IOException e) {
-            System.err.println("Connection error with player: " + e.getMessage());
-            handleDisconnection();
-        }
-    }
-
-    public void dealInitialCards() {
-        hand.add(server.getDeck().drawCard());
-        hand.add(server.getDeck().drawCard());
-        sendMessage("Your initial hand: " + hand);
-    }
-
-    public void takeTurn() {
-        try {
-            while (!stood && !busted) {
-                sendMessage("Your turn");
-                String action = in.readLine(); // Wait for player's action
-
-                if (action == null || action.equalsIgnoreCase("DISCONNECT")) {
-                    handleDisconnection();
-                    break;
-                }
-
-                if (action.equalsIgnoreCase("HIT")) {
-                    String card = server.getDeck().drawCard();
-                    hand.add(card);
-                    sendMessage("You drew: " + card + ". Current hand: " + hand);
-                    if (calculateHandValue() > 21) {
-                        sendMessage("You are busted!");
-                        busted = true;
-                    }
-                } else if (action.equalsIgnoreCase("STAND")) {
-                    sendMessage("You chose to stand.");
-                    stood = true;
-                }
-
-                if (!stood && !busted) {
-                    sendMessage("Wait for your next action.");
-                }
-            }
-        } catch (IOException e) {
-            handleDisconnection();
-        }
-    }
-
-    private void handleDisconnection() {
-        stood = true; // Automatically stand if the player disconnects
-        System.err.println("Player " + playerId + " disconnected: " + socket.getInetAddress());
-        server.handlePlayerDisconnection(this);
-    }
-
-    public void reset() {
-        hand.clear();
-        stood = false;
-        busted = false;
-    }
-
-    public int calculateHandValue() {
-        int value = 0;
-        int aces = 0;
-        for (String card : hand) {
-            String rank = card.split(" ")[0];
-            switch (rank) {
-                case "Jack":
-                case "Queen":
-                case "King":
-                    value += 10;
-                    break;
-                case "Ace":
-                    aces++;
-                    value += 11;
-                    break;
-                default:
-                    value += Integer.parseInt(rank);
-            }
-        }
-        while (value > 21 && aces > 0) {
-            value -= 10;
-            aces--;
-        }
-        return value;
-    }
-
-    public int getHandValue() {
-        return calculateHandValue();
-    }
-
-    public boolean hasStood() {
-        return stood;
-    }
-
-    public boolean isBusted() {
-        return busted;
-    }
-
-    public void sendMessage(String message) {
-        out.println(message);
-    }
-
-    public int getPlayerId() {
-        return playerId;
-    }
-
-    public List<String> getHand() {
-        return hand;
-    }
-}
+package application.blackjackxgui;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class PlayerHandler implements Runnable, ConnectionListener {
+    // Unique player IDs. Handlers are created on event loops, timer threads and any thread that frees a seat.
+    private static final AtomicInteger nextId = new AtomicInteger(1);
+    // Actions waiting for the game thread; more than any turn can use means the client is flooding
+    private static final int MAX_QUEUED_ACTIONS = 16;
+
+    private final int playerId;
+    private final Connection firstConnection;
+    private volatile Connection connection; // Replaced when the player resumes on a new connection
+    private final Table table;
+    private final Sessions sessions;
+    private final String sessionToken;     // Null when sessions are turned off
+    private boolean detached;              // Connection lost, seat held; guarded by outLock
+    private long detachSerial;             // Lets a grace expiry tell if it is stale; guarded by outLock
+    private ScheduledFuture<?> graceExpiry;
+    private volatile boolean leaving;      // Sent DISCONNECT, so a closed connection isn't held for them
+    private volatile boolean awaiting;     // Waiting on this player's action, to prompt again after a resume
+    private final BlockingQueue<Command> actions = new ArrayBlockingQueue<>(MAX_QUEUED_ACTIONS); // Filled by the transport
+    private volatile long lastActionNanos; // Arrival time of the newest action, for latency metrics
+    private long waitSerial;               // Counts action waits, so a deadline can tell if it is stale
+    private volatile long expiredSerial;
+    private final AtomicBoolean disconnected = new AtomicBoolean();
+    private final ReentrantLock outLock = new ReentrantLock(); // Orders writes and protocol switches
+    private WireEncoder out = new TextEncoder(); // Until the client negotiates bin1
+    private volatile boolean binary;
+    private final Ledger.Account account;
+    private volatile long bet;  // Staked at the start of each round; changed by BET at any time
+    // The seat's hands this round, played in order. The Hand objects live as long as the player
+    // and are only reordered by a split, so no action allocates. Only the game thread changes
+    // hands, stakes, handCount and insurance, and only under the table lock (lockState), which
+    // snapshots on other threads read them under.
+    private final Hand[] hands = new Hand[Rules.MAX_HANDS];
+    private final long[] stakes = new long[Rules.MAX_HANDS];
+    private final boolean[] stood = new boolean[Rules.MAX_HANDS];
+    private final boolean[] splitAces = new boolean[Rules.MAX_HANDS]; // One card only, unless it can split again
+    private int handCount;
+    private int activeHand;
+    private long insurance;
+
+    // resumedToken is the token of a player back after a restart whose bankroll the ledger
+    // restored, or null for a new player
+    public PlayerHandler(Connection connection, Table table, Sessions sessions, String resumedToken) {
+        this.playerId = nextId.getAndIncrement();
+        this.firstConnection = connection;
+        this.connection = connection;
+        this.table = table;
+        this.sessions = sessions;
+        this.sessionToken = sessions.open(this, resumedToken);
+        this.account = table.getLedger().openAccount(sessionToken);
+        this.bet = table.getLedger().getMinBet();
+        for (int i = 0; i < hands.length; i++) {
+            hands[i] = new Hand();
+        }
+    }
+
+    @Override
+    public void run() {
+        WireEncoder welcome = beginMessage();
+        welcome.welcome("Welcome to Multiplayer Blackjack!");
+        welcome.info("Protocols: text " + BinaryProtocol.VERSION);
+        if (sessionToken != null) {
+            welcome.session(sessionToken);
+        }
+        endMessage();
+
+        // Synchronize with the table's current game state
+        table.syncPlayerState(this);
+    }
+
+    // Lines replayed from the handshake or the waiting room
+    @Override
+    public void onLine(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        onLine(bytes, 0, bytes.length);
+    }
+
+    // Protocol and bet changes are handled as soon as they arrive; actions are queued for the
+    // game thread as their Command
+    @Override
+    public void onLine(byte[] line, int offset, int length) {
+        Command command = Command.decode(line, offset, length);
+        switch (command) {
+            case PROTOCOL -> negotiate(command.argument(line, offset, length));
+            case BET -> changeBet(command.argument(line, offset, length));
+            case UNKNOWN -> {
+                if (length > 0) {
+                    sendInfo("Unknown command. Send HIT, STAND, DOUBLE, SPLIT, INSURANCE, HINT, BET <chips> or DISCONNECT.");
+                }
+            }
+            default -> {
+                if (command == Command.DISCONNECT) {
+                    leaving = true;
+                }
+                lastActionNanos = System.nanoTime();
+                if (!actions.offer(command)) {
+                    Log.warn("Dropping player {}: more than {} actions queued", playerId, MAX_QUEUED_ACTIONS);
+                    Metrics.floodDrops.increment();
+                    connection.send(RateLimiter.NOTICE);
+                    connection.close();
+                }
+            }
+        }
+    }
+
+    // Handled on the transport thread as soon as the request arrives, not at the next turn.
+    // The acknowledgement is the last text line; a snapshot in the new protocol follows it.
+    private void negotiate(String version) {
+        if (!version.equalsIgnoreCase(BinaryProtocol.VERSION)) {
+            sendInfo("Protocol: text");
+            return;
+        }
+        outLock.lock();
+        try {
+            if (binary) {
+                return;
+            }
+            connection.send(BinaryProtocol.ACCEPTED);
+            out = new BinaryEncoder();
+            binary = true;
+        } finally {
+            outLock.unlock();
+        }
+        table.syncPlayerState(this);
+    }
+
+    // Like a protocol request, handled when it arrives; it applies from the next deal
+    private void changeBet(String amount) {
+        Ledger ledger = table.getLedger();
+        long requested;
+        try {
+            requested = Long.parseLong(amount);
+        } catch (NumberFormatException e) {
+            requested = -1;
+        }
+        if (requested < ledger.getMinBet() || requested > ledger.getMaxBet()) {
+            sendInfo("Bets must be between " + ledger.getMinBet() + " and " + ledger.getMaxBet() + " chips.");
+            return;
+        }
+        bet = requested;
+        sendInfo("Your bet is now " + requested + " chips from the next round.");
+    }
+
+    @Override
+    public void onClose() {
+        connectionClosed(firstConnection);
+    }
+
+    // A dropped connection keeps the seat for the grace period: the round goes on without the
+    // player (their turn times out as usual) until they resume or the grace period ends.
+    private void connectionClosed(Connection closed) {
+        if (sessionToken != null && !leaving) {
+            outLock.lock();
+            try {
+                if (closed != connection || detached || disconnected.get()) {
+                    return; // A connection the player has moved off, or already handled
+                }
+                detached = true;
+                long serial = ++detachSerial;
+                graceExpiry = sessions.scheduleExpiry(() -> expireSession(serial));
+            } finally {
+                outLock.unlock();
+            }
+            Log.info("Player {} dropped; seat held for {} ms", playerId, sessions.getGraceMillis());
+            return;
+        }
+        actions.offer(Command.DISCONNECT); // Wakes the game thread if it is waiting on this player
+        handleDisconnection();
+    }
+
+    private void expireSession(long serial) {
+        outLock.lock();
+        try {
+            if (!detached || serial != detachSerial || !disconnected.compareAndSet(false, true)) {
+                return;
+            }
+        } finally {
+            outLock.unlock();
+        }
+        actions.offer(Command.DISCONNECT);
+        leave();
+    }
+
+    // Moves the player onto a new connection that presented their session token, closing the
+    // old one if the server hadn't noticed it drop. The client starts over in text with the
+    // welcome, a table snapshot, its bankroll and, if the table is waiting on it, the turn
+    // prompt. Returns the new connection's listener, or null if the player has already left.
+    ConnectionListener resume(Connection newConnection) {
+        Connection previous;
+        outLock.lock();
+        try {
+            if (disconnected.get()) {
+                return null;
+            }
+            detached = false;
+            detachSerial++;
+            if (graceExpiry != null) {
+                graceExpiry.cancel(false);
+                graceExpiry = null;
+            }
+            previous = connection;
+            connection = newConnection;
+            out = new TextEncoder();
+            binary = false;
+        } finally {
+            outLock.unlock();
+        }
+        previous.close(); // Its close is ignored now that it isn't the player's connection
+        Metrics.sessionResumes.increment();
+        Log.info("Player {} resumed from {}", playerId, newConnection.getRemoteAddress());
+
+        run();
+        long stake;
+        table.lockState();
+        try {
+            stake = getTotalStake();
+        } finally {
+            table.unlockState();
+        }
+        WireEncoder message = beginMessage();
+        message.wager(stake, account.getBalance());
+        if (awaiting) {
+            message.yourTurn();
+        }
+        endMessage();
+        return new ConnectionListener() {
+            @Override
+            public void onLine(String line) {
+                PlayerHandler.this.onLine(line);
+            }
+
+            @Override
+            public void onLine(byte[] line, int offset, int length) {
+                PlayerHandler.this.onLine(line, offset, length);
+            }
+
+            @Override
+            public void onClose() {
+                connectionClosed(newConnection);
+            }
+        };
+    }
+
+    // Stakes the current bet, or whatever is left of the bankroll. False, once the player has
+    // been told why, if there is nothing left to bet. Called under the table lock.
+    public boolean placeBet() {
+        stakes[0] = account.hold(bet);
+        if (stakes[0] > 0) {
+            return true;
+        }
+        sendInfo("You have no chips left to bet, so you leave the table.");
+        return false;
+    }
+
+    // Stands up a player who couldn't bet, freeing the seat for someone waiting
+    public void leaveTable() {
+        leaving = true;
+        handleDisconnection();
+    }
+
+    // Deals two cards on the bet placed. Called under the table lock.
+    public void dealInitialCards() {
+        handCount = 1;
+        activeHand = 0;
+        Hand hand = hands[0];
+        for (int i = 0; i < 2; i++) {
+            draw(hand, Journal.DEAL);
+        }
+        WireEncoder message = beginMessage();
+        message.wager(getTotalStake(), account.getBalance());
+        message.initialHand(hand);
+        endMessage();
+    }
+
+    // Plays each of the seat's hands in turn; a split adds hands after the current one
+    public void takeTurn() {
+        try {
+            while (activeHand < handCount && !disconnected.get()) {
+                Hand hand = hands[activeHand];
+                if (hand.size() == 1) {
+                    dealSplitCard(hand);
+                    continue;
+                }
+                if (stood[activeHand] || hand.isBusted()) {
+                    activeHand++;
+                    continue;
+                }
+                if (Rules.isNatural(hand, handCount)) {
+                    table.record(Journal.STAND, this, 0);
+                    stood[activeHand] = true;
+                    sendInfo("Blackjack! You stand.");
+                    continue;
+                }
+                beginMessage().yourTurn();
+                endMessage();
+                Command action = awaitAction();
+
+                if (action == Command.TIMEOUT) {
+                    Metrics.turnTimeouts.increment();
+                    Log.debug("Player {} timed out; standing", playerId);
+                    table.record(Journal.STAND, this, 0);
+                    sendInfo("Time's up. You stand.");
+                    stood[activeHand] = true;
+                    continue;
+                }
+                if (action == Command.DISCONNECT) {
+                    handleDisconnection();
+                    break;
+                }
+                table.actionReceived(lastActionNanos);
+
+                boolean applied = true;
+                if (action == Command.HIT && splitAces[activeHand]) {
+                    applied = false;
+                    sendInfo("Split aces take one card each. You can SPLIT again or STAND.");
+                } else if (action == Command.HIT) {
+                    int card = draw(hand, Journal.HIT);
+                    WireEncoder message = beginMessage();
+                    message.drew(card, hand);
+                    if (hand.isBusted()) {
+                        message.busted();
+                    }
+                    endMessage();
+                } else if (action == Command.STAND) {
+                    table.record(Journal.STAND, this, 0);
+                    beginMessage().stood();
+                    endMessage();
+                    stood[activeHand] = true;
+                } else if (action == Command.DOUBLE) {
+                    applied = doubleDown(hand);
+                } else if (action == Command.SPLIT) {
+                    applied = split(hand);
+                } else if (action == Command.INSURANCE) {
+                    applied = false;
+                    sendInfo("Insurance is only offered while the dealer shows an ace, before anyone acts.");
+                }
+                if (applied) {
+                    connection.refundCommand(); // Only a move that plays the turn on; rejected ones still count
+                }
+
+                if (!stood[activeHand] && !hand.isBusted()) {
+                    beginMessage().waitForAction();
+                    endMessage();
+                }
+                table.broadcastGameState(); // Let the table see each card as it lands
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handleDisconnection();
+        }
+    }
+
+    // Doubles the hand's stake for exactly one more card; false if the hand can't double
+    private boolean doubleDown(Hand hand) {
+        if (!canDouble(hand)) {
+            sendInfo("You can double only on your first two cards, with chips to match your bet.");
+            return false;
+        }
+        int card;
+        long stake;
+        table.lockState();
+        try {
+            stakes[activeHand] += account.hold(stakes[activeHand]);
+            card = draw(hand, Journal.DOUBLE);
+            stake = getTotalStake();
+        } finally {
+            table.unlockState();
+        }
+        WireEncoder message = beginMessage();
+        message.wager(stake, account.getBalance());
+        message.drew(card, hand);
+        if (hand.isBusted()) {
+            message.busted();
+        } else {
+            stood[activeHand] = true;
+            message.stood();
+        }
+        endMessage();
+        return true;
+    }
+
+    // Moves the pair's second card into a new hand, with a matching stake, right after this one.
+    // Each hand then gets its second card as it comes up. False if the hand can't split.
+    private boolean split(Hand hand) {
+        if (!canSplit(hand)) {
+            sendInfo("You can split two cards of the same value, up to " + Rules.MAX_HANDS + " hands, with chips to match your bet.");
+            return false;
+        }
+        long total;
+        table.lockState();
+        try {
+            long stake = account.hold(stakes[activeHand]);
+            int next = activeHand + 1;
+            Hand spare = hands[handCount];
+            for (int i = handCount; i > next; i--) {
+                hands[i] = hands[i - 1];
+                stakes[i] = stakes[i - 1];
+                stood[i] = stood[i - 1];
+                splitAces[i] = splitAces[i - 1];
+            }
+            spare.clear();
+            spare.add(hand.removeLast());
+            hands[next] = spare;
+            stakes[next] = stake;
+            stood[next] = false;
+            splitAces[next] = splitAces[activeHand] = Card.isAce(spare.get(0));
+            handCount++;
+            table.record(Journal.SPLIT, this, 0);
+            table.markHandChanged(this);
+            total = getTotalStake();
+        } finally {
+            table.unlockState();
+        }
+        beginMessage().wager(total, account.getBalance());
+        endMessage();
+        return true;
+    }
+
+    private boolean canDouble(Hand hand) {
+        return hand.size() == 2 && !splitAces[activeHand] && account.getBalance() >= stakes[activeHand];
+    }
+
+    private boolean canSplit(Hand hand) {
+        return Rules.isPair(hand) && handCount < Rules.MAX_HANDS && account.getBalance() >= stakes[activeHand];
+    }
+
+    // Second card of a hand made by a split. Split aces stand on it, unless it is another ace
+    // they can be split again with.
+    private void dealSplitCard(Hand hand) {
+        draw(hand, Journal.HIT);
+        WireEncoder message = beginMessage();
+        message.playingHand(activeHand, handCount, hand);
+        if (splitAces[activeHand] && !canSplit(hand)) {
+            table.record(Journal.STAND, this, 0);
+            stood[activeHand] = true;
+            message.stood();
+        }
+        endMessage();
+    }
+
+    // Draws the next card onto the hand and journals it
+    private int draw(Hand hand, int type) {
+        table.lockState();
+        try {
+            int card = table.getDeck().drawCard();
+            hand.add(card);
+            table.record(type, this, card);
+            table.markHandChanged(this);
+            return card;
+        } finally {
+            table.unlockState();
+        }
+    }
+
+    // Asked of each player in turn while the dealer shows an ace, before the dealer checks for
+    // blackjack. INSURANCE stakes half the bet against a dealer blackjack; any other action, or
+    // the turn deadline, declines, and the action itself isn't applied.
+    public void offerInsurance() {
+        try {
+            WireEncoder message = beginMessage();
+            message.info("The dealer shows an ace. Send INSURANCE to insure for half your bet; anything else declines.");
+            message.yourTurn();
+            endMessage();
+            Command action = awaitAction();
+            if (action == Command.DISCONNECT) {
+                handleDisconnection();
+            } else if (action == Command.INSURANCE) {
+                if (insure()) {
+                    connection.refundCommand();
+                }
+            } else {
+                if (action == Command.HIT || action == Command.STAND) {
+                    connection.refundCommand(); // A plain move declines; anything else still counts
+                }
+                sendInfo("No insurance.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            handleDisconnection();
+        }
+    }
+
+    // False if the player has no chips to insure with
+    private boolean insure() {
+        long stake;
+        table.lockState();
+        try {
+            insurance = account.hold(stakes[0] / 2);
+            stake = getTotalStake();
+        } finally {
+            table.unlockState();
+        }
+        if (insurance == 0) {
+            sendInfo("You have no chips left for insurance.");
+            return false;
+        }
+        table.record(Journal.INSURANCE, this, 0);
+        WireEncoder message = beginMessage();
+        message.wager(stake, account.getBalance());
+        message.info("Insurance: " + insurance + " chips, paying 2 to 1 if the dealer has blackjack.");
+        endMessage();
+        return true;
+    }
+
+    // Waits for the player's next action, or TIMEOUT once the table's turn deadline passes.
+    // The deadline is a task on the shared turn timer, not a thread, and is cancelled as soon
+    // as the player acts. Hints are answered while waiting and don't restart the deadline.
+    private Command awaitAction() throws InterruptedException {
+        long timeout = table.getTurnTimeoutMillis();
+        long serial = ++waitSerial;
+        ScheduledFuture<?> deadline = timeout <= 0 ? null
+                : table.getTurnTimer().schedule(() -> expire(serial), timeout, TimeUnit.MILLISECONDS);
+        awaiting = true;
+        try {
+            while (true) {
+                Command action = actions.take();
+                if (action == Command.TIMEOUT) {
+                    if (expiredSerial != serial) {
+                        continue; // An earlier deadline fired just as its action arrived; it doesn't apply to this wait
+                    }
+                    return action;
+                }
+                if (action == Command.HINT) {
+                    sendHint();
+                    continue;
+                }
+                return action;
+            }
+        } finally {
+            awaiting = false;
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+        }
+    }
+
+    // Basic strategy for the hand against the dealer's upcard, from the precomputed table,
+    // counting only the moves the player could make now
+    private void sendHint() {
+        Metrics.hints.increment();
+        int upcard = table.getDealerUpcard();
+        Hand hand = hands[activeHand];
+        boolean canDouble = canDouble(hand);
+        boolean canSplit = canSplit(hand);
+        boolean canHit = !splitAces[activeHand]; // Split aces only stand or split again
+        beginMessage().hint(StrategyTable.action(hand, upcard, canDouble, canSplit, canHit),
+                StrategyTable.expectedReturn(hand, upcard, canDouble, canSplit, canHit));
+        endMessage();
+    }
+
+    private void expire(long serial) {
+        expiredSerial = serial;
+        actions.offer(Command.TIMEOUT);
+    }
+
+    // A player who leaves stands on every hand they have left to play
+    private void handleDisconnection() {
+        if (!disconnected.compareAndSet(false, true)) {
+            return;
+        }
+        leave();
+    }
+
+    private void leave() {
+        Log.info("Player {} disconnected: {}", playerId, connection.getRemoteAddress());
+        sessions.close(sessionToken);
+        table.getLedger().closeAccount(account);
+        connection.close();
+        table.handlePlayerDisconnection(this);
+    }
+
+    public void reset() {
+        for (int i = 0; i < handCount; i++) {
+            hands[i].clear();
+            stakes[i] = 0;
+            stood[i] = false;
+            splitAces[i] = false;
+        }
+        handCount = 0;
+        activeHand = 0;
+        insurance = 0;
+    }
+
+    // Ends the player's turn early, standing on whatever they hold
+    public void standRemainingHands() {
+        for (int i = activeHand; i < handCount; i++) {
+            stood[i] = true;
+        }
+        activeHand = handCount;
+    }
+
+    public boolean hasHandsToPlay() {
+        return activeHand < handCount && !disconnected.get();
+    }
+
+    public Ledger.Account getAccount() {
+        return account;
+    }
+
+    // Every chip the player has riding on the round: each hand's stake plus any insurance
+    public long getTotalStake() {
+        long total = insurance;
+        for (int i = 0; i < handCount; i++) {
+            total += stakes[i];
+        }
+        return total;
+    }
+
+    public long getStake(int hand) {
+        return stakes[hand];
+    }
+
+    public long getInsurance() {
+        return insurance;
+    }
+
+    public Hand[] getHands() {
+        return hands;
+    }
+
+    public int getHandCount() {
+        return handCount;
+    }
+
+    // Starts a message to this player alone, encoded in its protocol. Several messages may be
+    // added to the returned encoder; endMessage() must follow and sends them as one write.
+    public WireEncoder beginMessage() {
+        table.flushPendingLines(); // Earlier broadcasts go out first
+        outLock.lock();
+        return out;
+    }
+
+    public void endMessage() {
+        try {
+            connection.write(out.drain());
+        } finally {
+            outLock.unlock();
+        }
+    }
+
+    public void sendInfo(String text) {
+        beginMessage().info(text);
+        endMessage();
+    }
+
+    // Writes a frame shared with the rest of the table, picking the encoding this player uses
+    void writeFrame(byte[] text, byte[] binaryFrame) {
+        outLock.lock();
+        try {
+            connection.write(binary ? binaryFrame : text);
+        } finally {
+            outLock.unlock();
+        }
+    }
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+}
@@ -0,0 +1,22 @@
+package application.blackjackxgui;
+
+// Decides simulated players' actions. Implementations are shared across worker threads,
+// so they must be stateless.
+public interface PlayerStrategy {
+    boolean shouldHit(Hand hand, int dealerUpcard);
+
+    // Hits below the given total, e.g. 17 to mimic the dealer
+    static PlayerStrategy standOn(int total) {
+        return (hand, dealerUpcard) -> hand.getValue() < total;
+    }
+
+    // Hits exactly when StrategyTable says to
+    static PlayerStrategy basic() {
+        return (hand, dealerUpcard) -> StrategyTable.shouldHit(hand.getValue(), hand.isSoft(), dealerUpcard);
+    }
+
+    // "basic", or a total to stand on
+    static PlayerStrategy parse(String spec) {
+        return spec.equalsIgnoreCase("basic") ? basic() : standOn(Integer.parseInt(spec));
+    }
+}
@@ -0,0 +1,49 @@
+package application.blackjackxgui;
+
+// Token bucket for the lines one client sends. It holds up to burst tokens, refills at rate
+// tokens per second and every line takes one. The game gives back the token of each action
+// it takes on the player's turn, so a person clicking or a bot playing as fast as the table
+// deals never notices it, while a client that keeps sending what nobody asked for runs dry
+// and is disconnected by its transport before the flood reaches a table.
+public final class RateLimiter {
+    static final String NOTICE = "INFO|You sent too many commands and were disconnected.";
+
+    private final int rate;
+    private final double tokensPerNano;
+    private final double burst;
+    private double tokens;
+    private long refilledAt;
+
+    private RateLimiter(int rate, int burst) {
+        this.rate = rate;
+        this.tokensPerNano = rate / 1e9;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.refilledAt = System.nanoTime();
+    }
+
+    // A full bucket for a new connection, or null when commands aren't limited
+    public static RateLimiter create(int rate, int burst) {
+        return rate > 0 ? new RateLimiter(rate, burst) : null;
+    }
+
+    // Takes a token for a line that just arrived; false once the client has used them up
+    public synchronized boolean tryAcquire(long now) {
+        tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    // Called from the game thread
+    public synchronized void refund() {
+        tokens = Math.min(burst, tokens + 1);
+    }
+
+    public int getRate() {
+        return rate;
+    }
+}
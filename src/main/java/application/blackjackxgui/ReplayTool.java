@@ -0,0 +1,303 @@
+package application.blackjackxgui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Re-executes journaled rounds headlessly and checks them against what the server recorded.
+// Each table's shoe is rebuilt from its recorded shuffle seed and the round's starting
+// cursor; the deal is redone in the server's order, each player's recorded actions are
+// applied to their current hand (splits add hands), and the dealer plays out with the same
+// Rules as Table. Every card drawn, every dealer card and every result must match the journal.
+//
+// Usage: java application.blackjackxgui.ReplayTool <journalDir> [table round]
+// With only the directory every completed round is audited and mismatches are listed;
+// with a table and round number that one round is replayed step by step.
+public class ReplayTool {
+    private final Long traceTable;
+    private final long traceRound;
+    private final Map<Integer, TableReplay> tables = new HashMap<>();
+    long rounds;
+    long voided;
+    long mismatches;
+
+    public ReplayTool(Long traceTable, long traceRound) {
+        this.traceTable = traceTable;
+        this.traceRound = traceRound;
+    }
+
+    // Journal events of one round at one table, replayed when its ROUND_END arrives
+    private final class TableReplay {
+        final int tableId;
+        Deck deck;
+        long seed;
+        long round;
+        int startCursor;
+        int events;
+        int[] types = new int[32];
+        int[] seats = new int[32];
+        int[] values = new int[32];
+        final Hand dealerHand = new Hand();
+        final Hand[][] hands = new Hand[Table.MAX_PLAYERS][Rules.MAX_HANDS]; // By seat, in play order
+        final int[] handCounts = new int[Table.MAX_PLAYERS];
+        final int[] activeHands = new int[Table.MAX_PLAYERS];
+
+        TableReplay(int tableId) {
+            this.tableId = tableId;
+            for (Hand[] seat : hands) {
+                for (int h = 0; h < seat.length; h++) {
+                    seat[h] = new Hand();
+                }
+            }
+        }
+
+        void add(int type, int seat, int value) {
+            if (events == types.length) {
+                types = Arrays.copyOf(types, events * 2);
+                seats = Arrays.copyOf(seats, events * 2);
+                values = Arrays.copyOf(values, events * 2);
+            }
+            types[events] = type;
+            seats[events] = seat;
+            values[events] = value;
+            events++;
+        }
+
+        void replay() {
+            boolean trace = traceTable != null && traceTable == tableId && traceRound == round;
+            if (deck == null) {
+                mismatch("no shuffle recorded before the round");
+                return;
+            }
+            if (deck.getSeed() != seed || deck.getCursor() != startCursor) {
+                deck.restore(seed, startCursor); // Usually the shoe simply carries on from the last round
+            }
+            dealerHand.clear();
+            int players = 0;
+            for (int i = 0; i < events; i++) {
+                if (types[i] == Journal.DEAL) {
+                    players = Math.max(players, seats[i] + 1);
+                }
+            }
+            for (int seat = 0; seat < hands.length; seat++) {
+                for (Hand hand : hands[seat]) {
+                    hand.clear();
+                }
+                handCounts[seat] = 1;
+                activeHands[seat] = 0;
+            }
+
+            int next = 0;
+            // The deal: two cards per player in seat order, then two for the dealer
+            for (int seat = 0; seat < players; seat++) {
+                for (int c = 0; c < 2; c++, next++) {
+                    if (!expect(next, Journal.DEAL, seat, hands[seat][0], trace)) {
+                        return;
+                    }
+                }
+            }
+            for (int c = 0; c < 2; c++, next++) {
+                if (!expect(next, Journal.DEALER_CARD, 0, dealerHand, trace)) {
+                    return;
+                }
+            }
+
+            // Player actions in the order they were taken, each on that seat's current hand. A
+            // hand ends on a recorded stand, a double or a bust.
+            while (next < events && isAction(types[next])) {
+                int type = types[next];
+                int seat = seats[next];
+                if (activeHands[seat] >= handCounts[seat]) {
+                    mismatch("action by player " + (seat + 1) + " after their last hand ended");
+                    return;
+                }
+                Hand hand = hands[seat][activeHands[seat]];
+                switch (type) {
+                    case Journal.HIT, Journal.DOUBLE -> {
+                        if (!expect(next, type, seat, hand, trace)) {
+                            return;
+                        }
+                        if (type == Journal.DOUBLE || hand.isBusted()) {
+                            activeHands[seat]++;
+                        }
+                    }
+                    case Journal.STAND -> {
+                        if (trace) {
+                            System.out.println("  player " + (seat + 1) + " stands on " + hand.getValue());
+                        }
+                        activeHands[seat]++;
+                    }
+                    case Journal.SPLIT -> {
+                        if (!Rules.isPair(hand) || handCounts[seat] == Rules.MAX_HANDS) {
+                            mismatch("player " + (seat + 1) + " split " + hand + ", which can't be split");
+                            return;
+                        }
+                        split(seat);
+                        if (trace) {
+                            System.out.println("  player " + (seat + 1) + " splits into " + handCounts[seat] + " hands");
+                        }
+                    }
+                    default -> {
+                        if (trace) {
+                            System.out.println("  player " + (seat + 1) + " takes insurance");
+                        }
+                    }
+                }
+                next++;
+            }
+
+            // The dealer plays by the server's rule; the journal must show the same draws
+            while (Rules.dealerHits(dealerHand)) {
+                if (!expect(next++, Journal.DEALER_CARD, 0, dealerHand, trace)) {
+                    return;
+                }
+            }
+
+            int dealerValue = dealerHand.getValue();
+            int results = 0;
+            int expected = 0;
+            Arrays.fill(activeHands, 0); // Now counts each seat's results
+            for (int seat = 0; seat < players; seat++) {
+                expected += handCounts[seat];
+            }
+            for (; next < events; next++) {
+                if (types[next] != Journal.RESULT) {
+                    mismatch("unexpected event type " + types[next] + " after the dealer's turn");
+                    return;
+                }
+                int seat = seats[next];
+                if (activeHands[seat] >= handCounts[seat]) {
+                    mismatch("more results for player " + (seat + 1) + " than hands");
+                    return;
+                }
+                Hand hand = hands[seat][activeHands[seat]++];
+                Outcome outcome = Rules.outcome(hand, handCounts[seat], dealerHand);
+                if (trace) {
+                    System.out.println("  player " + (seat + 1) + " " + hand + " (" + hand.getValue() + ") vs dealer "
+                            + dealerHand + " (" + dealerValue + "): " + outcome);
+                }
+                if (outcome.ordinal() != values[next]) {
+                    mismatch("player " + (seat + 1) + " recorded " + Outcome.values()[values[next]] + ", replay gives " + outcome);
+                    return;
+                }
+                results++;
+            }
+            if (results != expected) {
+                mismatch(expected + " hands played but " + results + " results recorded");
+            }
+        }
+
+        // Same reordering as PlayerHandler: the pair's second card starts a new hand right
+        // after the current one
+        private void split(int seat) {
+            Hand[] seatHands = hands[seat];
+            int count = handCounts[seat];
+            int next = activeHands[seat] + 1;
+            Hand spare = seatHands[count];
+            System.arraycopy(seatHands, next, seatHands, next + 1, count - next);
+            spare.clear();
+            spare.add(seatHands[next - 1].removeLast());
+            seatHands[next] = spare;
+            handCounts[seat] = count + 1;
+        }
+
+        private boolean isAction(int type) {
+            return type == Journal.HIT || type == Journal.STAND || type == Journal.DOUBLE
+                    || type == Journal.SPLIT || type == Journal.INSURANCE;
+        }
+
+        // Draws the next card from the rebuilt shoe and checks it against journal event i
+        private boolean expect(int i, int type, int seat, Hand hand, boolean trace) {
+            if (i >= events || types[i] != type || (type != Journal.DEALER_CARD && seats[i] != seat)) {
+                mismatch("expected " + describe(type, seat) + " as event " + (i + 1) + " of the round");
+                return false;
+            }
+            int card = deck.drawCard();
+            if (card != values[i]) {
+                mismatch(describe(type, seat) + " recorded " + Card.name(values[i]) + ", shoe gives " + Card.name(card));
+                return false;
+            }
+            hand.add(card);
+            if (trace) {
+                System.out.println("  " + describe(type, seat) + ": " + Card.name(card) + " -> " + hand + " (" + hand.getValue() + ")");
+            }
+            return true;
+        }
+
+        private String describe(int type, int seat) {
+            return switch (type) {
+                case Journal.DEAL -> "deal to player " + (seat + 1);
+                case Journal.HIT -> "hit by player " + (seat + 1);
+                case Journal.DOUBLE -> "double by player " + (seat + 1);
+                default -> "dealer card";
+            };
+        }
+
+        private void mismatch(String detail) {
+            mismatches++;
+            System.out.println("MISMATCH table " + tableId + " round " + round + ": " + detail);
+        }
+    }
+
+    private void apply(ByteBuffer record) {
+        int type = record.get();
+        int tableId = record.getInt();
+        TableReplay table = tables.computeIfAbsent(tableId, TableReplay::new);
+        switch (type) {
+            case Journal.SHUFFLE -> {
+                table.seed = record.getLong();
+                int size = record.getShort() & 0xFFFF;
+                if (table.deck == null || table.deck.size() != size) {
+                    table.deck = new Deck(size / Card.CARDS_PER_DECK, 1.0, new SplittableRandom(0));
+                }
+            }
+            case Journal.ROUND_START -> {
+                table.round = record.getLong();
+                table.startCursor = record.getInt();
+                table.events = 0;
+            }
+            case Journal.DEAL, Journal.HIT, Journal.DOUBLE -> table.add(type, record.get(), record.get());
+            case Journal.STAND, Journal.SPLIT, Journal.INSURANCE -> table.add(type, record.get(), 0);
+            case Journal.DEALER_CARD -> table.add(type, 0, record.get());
+            case Journal.RESULT -> table.add(type, record.get(), record.get());
+            case Journal.ROUND_END -> {
+                if (traceTable == null || (traceTable == tableId && traceRound == table.round)) {
+                    if (traceTable != null) {
+                        System.out.println("Table " + tableId + " round " + table.round + " (shoe seed " + table.seed
+                                + ", cursor " + table.startCursor + "):");
+                    }
+                    table.replay();
+                    rounds++;
+                }
+            }
+            case Journal.ROUND_VOID -> voided++;
+            default -> throw new IllegalStateException("Unknown journal record type " + type);
+        }
+    }
+
+    public void run(Path journal) throws IOException {
+        Journal.read(journal, this::apply);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 3) {
+            System.err.println("Usage: ReplayTool <journalDir> [table round]");
+            System.exit(2);
+        }
+        ReplayTool tool = args.length == 3
+                ? new ReplayTool(Long.parseLong(args[1]), Long.parseLong(args[2]))
+                : new ReplayTool(null, 0);
+        long start = System.nanoTime();
+        tool.run(Path.of(args[0]));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Replayed %,d rounds in %.2f s (%,.0f rounds/s): %,d mismatches, %,d voided rounds skipped%n",
+                tool.rounds, seconds, tool.rounds / seconds, tool.mismatches, tool.voided);
+        if (tool.mismatches > 0) {
+            System.exit(1);
+        }
+    }
+}
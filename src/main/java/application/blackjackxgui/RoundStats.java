@@ -0,0 +1,328 @@
+package application.blackjackxgui;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Sliding-window statistics of settled rounds, per table and across the server: how hands
+// end, how often the dealer busts behind each upcard, rounds per minute and the house edge
+// actually observed.
+//
+// A table hands each settled round over as a small record and carries on; the counting is
+// done by background "round-stats" threads. Each thread owns the tables whose id maps to it,
+// with their windows and a server-wide window of its own, so every counter has exactly one
+// writer. Readers (the metrics endpoint) add up the threads' windows on demand without a
+// lock, so play never pauses to be measured. When a thread falls behind, rounds are left out
+// and counted rather than queued forever.
+//
+// A window is a ring of BUCKETS time buckets; the writer clears a bucket when time comes
+// round to it again. A read that meets a bucket being cleared is out by that bucket's rounds.
+public class RoundStats {
+    static final int BUCKETS = 60;
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int UPCARDS = 10; // By hard value, ace 1 .. ten 10
+
+    // Counters in each bucket
+    private static final int ROUNDS = 0;
+    private static final int HANDS = 1;
+    private static final int OUTCOMES = 2; // One per Outcome, by ordinal
+    private static final int WAGERED = OUTCOMES + Outcome.values().length;
+    private static final int PAID = WAGERED + 1;
+    private static final int UPCARD_ROUNDS = PAID + 1;
+    private static final int UPCARD_BUSTS = UPCARD_ROUNDS + UPCARDS;
+    private static final int FIELDS = UPCARD_BUSTS + UPCARDS;
+
+    private static final RoundStats DISABLED = new RoundStats();
+
+    // A settled round as its table saw it
+    private record Round(int tableId, long endedMillis, int upcard, boolean dealerBusted, int[] outcomes, long wagered, long paid) {
+    }
+
+    private final long windowMillis;
+    private final long bucketMillis;
+    private final long startedMillis;
+    private final AtomicReferenceArray<Window> tables; // Created by the owning thread on a table's first round
+    private final Worker[] workers;
+
+    private RoundStats() {
+        windowMillis = 0;
+        bucketMillis = 0;
+        startedMillis = 0;
+        tables = null;
+        workers = new Worker[0];
+    }
+
+    private RoundStats(long windowMillis, int threads, int tableCount) {
+        this.windowMillis = windowMillis;
+        this.bucketMillis = Math.max(1, windowMillis / BUCKETS);
+        this.startedMillis = System.currentTimeMillis();
+        this.tables = new AtomicReferenceArray<>(tableCount);
+        this.workers = new Worker[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i);
+        }
+    }
+
+    // Windows of windowSeconds, kept by the given number of threads
+    public static RoundStats open(int windowSeconds, int threads, int tableCount) {
+        return new RoundStats(windowSeconds * 1000L, threads, tableCount);
+    }
+
+    // Drops every round; used when windowed stats are turned off
+    public static RoundStats disabled() {
+        return DISABLED;
+    }
+
+    public boolean isEnabled() {
+        return this != DISABLED;
+    }
+
+    public int getWindowSeconds() {
+        return (int) (windowMillis / 1000);
+    }
+
+    // Called on the game thread once a round has been settled. outcomes counts the round's
+    // hands by Outcome ordinal and may be reused as soon as this returns.
+    public void record(int tableId, int upcard, boolean dealerBusted, int[] outcomes, long wagered, long paid) {
+        if (!isEnabled()) {
+            return;
+        }
+        Round round = new Round(tableId, System.currentTimeMillis(), Card.value(upcard), dealerBusted, outcomes.clone(), wagered, paid);
+        if (!workers[(tableId - 1) % workers.length].queue.offer(round)) {
+            Metrics.statsDropped.increment();
+        }
+    }
+
+    // The window across every table
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        long now = System.currentTimeMillis();
+        for (Worker worker : workers) {
+            worker.total.addTo(snapshot, now);
+        }
+        return snapshot;
+    }
+
+    // The window of one table by its 1-based id; empty if it hasn't settled a round
+    public Snapshot snapshot(int tableId) {
+        Snapshot snapshot = new Snapshot();
+        Window window = tableId >= 1 && tableId <= tables.length() ? tables.get(tableId - 1) : null;
+        if (window != null) {
+            window.addTo(snapshot, System.currentTimeMillis());
+        }
+        return snapshot;
+    }
+
+    public void close() {
+        for (Worker worker : workers) {
+            worker.thread.interrupt();
+        }
+    }
+
+    private class Worker {
+        private final BlockingQueue<Round> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        private final Window total = new Window();
+        private final Thread thread;
+
+        Worker(int index) {
+            thread = new Thread(this::run, "round-stats-" + (index + 1));
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void run() {
+            try {
+                while (true) {
+                    Round round = queue.take();
+                    total.add(round);
+                    window(round.tableId()).add(round);
+                }
+            } catch (InterruptedException e) {
+                // Server shutting down
+            }
+        }
+
+        private Window window(int tableId) {
+            Window window = tables.get(tableId - 1);
+            if (window == null) {
+                window = new Window();
+                tables.set(tableId - 1, window);
+            }
+            return window;
+        }
+    }
+
+    // One writer adds; any thread reads. Counters are written with lazySet, which costs the
+    // writer no fence and still never shows a reader a torn value.
+    private class Window {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS); // Bucket number each slot holds
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS * FIELDS);
+
+        void add(Round round) {
+            long bucket = round.endedMillis() / bucketMillis;
+            int slot = (int) (bucket % BUCKETS);
+            long held = buckets.get(slot);
+            if (held > bucket) {
+                return; // Waited in the queue for longer than the window
+            }
+            int base = slot * FIELDS;
+            if (held < bucket) {
+                for (int i = 0; i < FIELDS; i++) {
+                    counts.lazySet(base + i, 0);
+                }
+                buckets.set(slot, bucket);
+            }
+            increment(base + ROUNDS, 1);
+            int[] outcomes = round.outcomes();
+            for (int i = 0; i < outcomes.length; i++) {
+                increment(base + HANDS, outcomes[i]);
+                increment(base + OUTCOMES + i, outcomes[i]);
+            }
+            increment(base + WAGERED, round.wagered());
+            increment(base + PAID, round.paid());
+            increment(base + UPCARD_ROUNDS + round.upcard() - 1, 1);
+            if (round.dealerBusted()) {
+                increment(base + UPCARD_BUSTS + round.upcard() - 1, 1);
+            }
+        }
+
+        private void increment(int index, long delta) {
+            counts.lazySet(index, counts.get(index) + delta);
+        }
+
+        void addTo(Snapshot snapshot, long now) {
+            long current = now / bucketMillis;
+            for (int slot = 0; slot < BUCKETS; slot++) {
+                long bucket = buckets.get(slot);
+                if (bucket <= current - BUCKETS || bucket > current) {
+                    continue; // Out of the window, or never used
+                }
+                int base = slot * FIELDS;
+                for (int i = 0; i < FIELDS; i++) {
+                    snapshot.counts[i] += counts.get(base + i);
+                }
+            }
+            // The current bucket is partly filled, the other BUCKETS - 1 cover their full span
+            long covered = (BUCKETS - 1) * bucketMillis + now % bucketMillis;
+            snapshot.spanMillis = Math.max(1, Math.min(covered, now - startedMillis));
+        }
+    }
+
+    // Totals over a window, added up at the moment it was taken. HistoryTool fills them from
+    // the hand history too, so archived and live figures read the same.
+    public static class Snapshot {
+        private final long[] counts = new long[FIELDS];
+        private long spanMillis = 1;
+
+        void addRound(int upcardValue, boolean dealerBusted, long wagered, long paid) {
+            counts[ROUNDS]++;
+            counts[WAGERED] += wagered;
+            counts[PAID] += paid;
+            counts[UPCARD_ROUNDS + upcardValue - 1]++;
+            if (dealerBusted) {
+                counts[UPCARD_BUSTS + upcardValue - 1]++;
+            }
+        }
+
+        void addHand(Outcome outcome) {
+            counts[HANDS]++;
+            counts[OUTCOMES + outcome.ordinal()]++;
+        }
+
+        void add(Snapshot other) {
+            for (int i = 0; i < FIELDS; i++) {
+                counts[i] += other.counts[i];
+            }
+        }
+
+        void setSpanMillis(long millis) {
+            spanMillis = Math.max(1, millis);
+        }
+
+        public long getRounds() {
+            return counts[ROUNDS];
+        }
+
+        public long getHands() {
+            return counts[HANDS];
+        }
+
+        public double getRoundsPerMinute() {
+            return counts[ROUNDS] * 60_000.0 / spanMillis;
+        }
+
+        // Share of hands that ended this way; 0 before any hand
+        public double getRate(Outcome outcome) {
+            return ratio(counts[OUTCOMES + outcome.ordinal()], counts[HANDS]);
+        }
+
+        public long getWagered() {
+            return counts[WAGERED];
+        }
+
+        public long getPaid() {
+            return counts[PAID];
+        }
+
+        // What the house kept of each chip staked, insurance included
+        public double getHouseEdge() {
+            return ratio(counts[WAGERED] - counts[PAID], counts[WAGERED]);
+        }
+
+        // By the upcard's hard value: 1 for an ace, 2 .. 10
+        public long getUpcardRounds(int value) {
+            return counts[UPCARD_ROUNDS + value - 1];
+        }
+
+        public double getDealerBustRate(int value) {
+            return ratio(counts[UPCARD_BUSTS + value - 1], counts[UPCARD_ROUNDS + value - 1]);
+        }
+
+        public double getDealerBustRate() {
+            long busts = 0;
+            for (int i = 0; i < UPCARDS; i++) {
+                busts += counts[UPCARD_BUSTS + i];
+            }
+            return ratio(busts, counts[ROUNDS]);
+        }
+
+        private static double ratio(long part, long whole) {
+            return whole == 0 ? 0 : (double) part / whole;
+        }
+
+        // Plain-text report; dealer bust rates are shown next to the infinite-shoe odds from
+        // StrategyTable, so a table that drifts from them stands out
+        public String render(String title) {
+            StringBuilder out = new StringBuilder(1024);
+            out.append(String.format(Locale.ROOT, "%s: %,d rounds over %s, %.1f per minute%n",
+                    title, getRounds(), duration(spanMillis), getRoundsPerMinute()));
+            out.append(String.format(Locale.ROOT, "Hands: %,d  win %.1f%%  blackjack %.1f%%  loss %.1f%%  push %.1f%%  bust %.1f%%%n",
+                    getHands(), 100 * getRate(Outcome.WIN), 100 * getRate(Outcome.BLACKJACK), 100 * getRate(Outcome.LOSS),
+                    100 * getRate(Outcome.PUSH), 100 * getRate(Outcome.BUST)));
+            out.append(String.format(Locale.ROOT, "Chips: wagered %,d  paid %,d  house edge %.2f%%%n",
+                    getWagered(), getPaid(), 100 * getHouseEdge()));
+            out.append(String.format(Locale.ROOT, "Dealer busts: %.1f%%; by upcard, observed (expected, rounds):%n", 100 * getDealerBustRate()));
+            for (int value = 2; value <= 11; value++) {
+                int up = value == 11 ? 1 : value;
+                int card = Card.of(up == 1 ? Card.ACE : up - 2, 0);
+                out.append(String.format(Locale.ROOT, "  %-2s %5.1f%%  (%4.1f%%, %,d)%n", up == 1 ? "A" : String.valueOf(up),
+                        100 * getDealerBustRate(up), 100 * StrategyTable.dealerFinal(card, StrategyTable.BUST), getUpcardRounds(up)));
+            }
+            return out.toString();
+        }
+
+        private static String duration(long millis) {
+            double seconds = millis / 1000.0;
+            if (seconds < 120) {
+                return String.format(Locale.ROOT, "%.0f s", seconds);
+            } else if (seconds < 2 * 3600) {
+                return String.format(Locale.ROOT, "%.1f min", seconds / 60);
+            } else if (seconds < 2 * 86_400) {
+                return String.format(Locale.ROOT, "%.1f h", seconds / 3600);
+            }
+            return String.format(Locale.ROOT, "%.1f days", seconds / 86_400);
+        }
+    }
+}
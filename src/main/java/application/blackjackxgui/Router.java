@@ -0,0 +1,157 @@
+package application.blackjackxgui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+// Thin front door for several server nodes. Each client connection is assigned to the live
+// node with the most free seats and then piped to it byte for byte, so the protocol, the
+// table and its round loop all stay on that one node.
+//
+// Usage: java application.blackjackxgui.Router with -Dblackjack.port (where clients connect)
+// and -Dblackjack.registry (memory or file:<dir>, shared with the nodes). With the memory
+// registry, -Dblackjack.localNodes=<n> starts n nodes in this JVM as a local stand-in cluster.
+public class Router {
+    private final NodeRegistry registry;
+    private final ServerSocket serverSocket;
+    private List<Candidate> candidates = List.of();
+    private long refreshedMillis;
+
+    // A node plus the seats the router has handed out since its last published load
+    private static final class Candidate {
+        final NodeInfo node;
+        int freeSeats;
+
+        Candidate(NodeInfo node) {
+            this.node = node;
+            this.freeSeats = node.freeSeats();
+        }
+    }
+
+    public Router(int port, NodeRegistry registry) throws IOException {
+        this.registry = registry;
+        this.serverSocket = new ServerSocket(port);
+    }
+
+    public void run() {
+        Log.info("Router listening on port {}", getPort());
+        try {
+            while (true) {
+                Socket client = serverSocket.accept();
+                Thread.ofVirtual().name("route-" + client.getPort()).start(() -> route(client));
+            }
+        } catch (IOException e) {
+            if (!serverSocket.isClosed()) {
+                Log.error("Error accepting client connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void route(Socket client) {
+        List<NodeInfo> tried = new ArrayList<>();
+        NodeInfo node;
+        while ((node = pickNode(tried)) != null) {
+            try {
+                Socket upstream = new Socket(node.host(), node.port());
+                Log.debug("Routing {} to {}", client.getRemoteSocketAddress(), node.id());
+                Thread.ofVirtual().start(() -> pipe(upstream, client));
+                pipe(client, upstream);
+                return;
+            } catch (IOException e) {
+                Log.warn("Node {} unreachable: {}", node.id(), e.getMessage());
+                tried.add(node);
+            }
+        }
+        try (OutputStream out = client.getOutputStream()) {
+            out.write("INFO|No game servers are available. Please try again later.\n".getBytes());
+        } catch (IOException e) {
+            // Client already gone
+        } finally {
+            close(client);
+        }
+    }
+
+    // Live node with the most free seats; with none free anywhere, the shortest waiting room
+    private synchronized NodeInfo pickNode(List<NodeInfo> exclude) {
+        long now = System.currentTimeMillis();
+        if (now - refreshedMillis >= NodeRegistry.PUBLISH_INTERVAL_MILLIS) {
+            List<Candidate> fresh = new ArrayList<>();
+            for (NodeInfo node : registry.nodes()) {
+                if (node.isLive(now)) {
+                    fresh.add(new Candidate(node));
+                }
+            }
+            candidates = fresh;
+            refreshedMillis = now;
+        }
+        Candidate best = null;
+        for (Candidate candidate : candidates) {
+            if (exclude.contains(candidate.node)) {
+                continue;
+            }
+            if (best == null || candidate.freeSeats > best.freeSeats
+                    || (candidate.freeSeats == best.freeSeats && candidate.node.waiting() < best.node.waiting())) {
+                best = candidate;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        best.freeSeats--; // Until the node's next publish, so a burst doesn't all land on one node
+        return best.node;
+    }
+
+    // Copies one direction until either side closes, then closes both
+    private static void pipe(Socket from, Socket to) {
+        try (InputStream in = from.getInputStream(); OutputStream out = to.getOutputStream()) {
+            byte[] buffer = new byte[2048];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // Either end went away
+        } finally {
+            close(from);
+            close(to);
+        }
+    }
+
+    private static void close(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            Log.warn("Error closing routed socket: {}", e.getMessage());
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public void stop() throws IOException {
+        serverSocket.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        ServerConfig config = ServerConfig.fromSystemProperties();
+        Log.setLevel(config.logLevel);
+        String spec = config.registry != null ? config.registry : "memory";
+        int localNodes = Integer.getInteger("blackjack.localNodes", 0);
+        for (int i = 1; i <= localNodes; i++) {
+            ServerConfig nodeConfig = ServerConfig.fromSystemProperties();
+            nodeConfig.port = 0;
+            nodeConfig.metricsPort = 0;
+            nodeConfig.registry = spec;
+            nodeConfig.nodeId = "local-" + i;
+            BlackjackServer node = new BlackjackServer(nodeConfig);
+            new Thread(node::run, "node-" + i).start();
+        }
+        new Router(config.port, NodeRegistry.open(spec)).run();
+    }
+}
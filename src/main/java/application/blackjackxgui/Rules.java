@@ -0,0 +1,72 @@
+package application.blackjackxgui;
+
+// The house rules, shared by live tables and the offline Simulator.
+//
+// A natural (a seat's first two cards making 21) pays 3 to 2; 21 on a hand made by a split
+// is an ordinary 21. Behind an ace or a ten-card the dealer checks for blackjack before
+// anyone acts, once insurance has been offered behind an ace. A dealer blackjack ends the
+// round there: it beats every hand but a natural, which pushes, and no one has doubled or
+// split into it.
+public final class Rules {
+    public static final int DEALER_STANDS_ON = 17; // Dealer stands on all 17s, soft or hard
+    public static final int MAX_HANDS = 4; // Pairs, aces included, may be split and re-split up to this many hands
+
+    private Rules() {
+    }
+
+    public static boolean dealerHits(Hand dealerHand) {
+        return dealerHand.getValue() < DEALER_STANDS_ON;
+    }
+
+    // Whether the dealer checks the hole card for blackjack before the players act
+    public static boolean dealerPeeks(int upcard) {
+        int value = Card.value(upcard);
+        return value == 1 || value == 10;
+    }
+
+    // Two cards of the same value, which may be split into two hands
+    public static boolean isPair(Hand hand) {
+        return hand.size() == 2 && Card.value(hand.get(0)) == Card.value(hand.get(1));
+    }
+
+    // The seat's first two cards making 21, given how many hands the seat plays
+    public static boolean isNatural(Hand hand, int handCount) {
+        return handCount == 1 && hand.isBlackjack();
+    }
+
+    // Chips returned for a stake: the stake and as much again for a win, and one and a half
+    // times as much again for a natural (rounded down to whole chips), the stake on a push
+    public static long payout(Outcome outcome, long stake) {
+        return switch (outcome) {
+            case BLACKJACK -> stake + stake * 3 / 2;
+            case WIN -> 2 * stake;
+            case PUSH -> stake;
+            default -> 0;
+        };
+    }
+
+    // Insurance pays 2 to 1, plus the insurance back, when the dealer has blackjack
+    public static long insurancePayout(long insurance, boolean dealerBlackjack) {
+        return dealerBlackjack ? 3 * insurance : 0;
+    }
+
+    // One of the seat's hands, of handCount, against the dealer's finished hand
+    public static Outcome outcome(Hand hand, int handCount, Hand dealerHand) {
+        boolean natural = isNatural(hand, handCount);
+        int playerValue = hand.getValue();
+        int dealerValue = dealerHand.getValue();
+        if (hand.isBusted()) {
+            return Outcome.BUST;
+        } else if (dealerHand.isBlackjack()) {
+            return natural ? Outcome.PUSH : Outcome.LOSS;
+        } else if (natural) {
+            return Outcome.BLACKJACK;
+        } else if (dealerValue > 21 || playerValue > dealerValue) {
+            return Outcome.WIN;
+        } else if (playerValue == dealerValue) {
+            return Outcome.PUSH;
+        } else {
+            return Outcome.LOSS;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package application.blackjackxgui;
+
+// Server settings, read from -Dblackjack.* system properties
+public class ServerConfig {
+    public int port = 12345;
+    public int tables = 1000;
+    public String transport = "nio";   // "nio" or "blocking"
+    public int ioThreads = 1;          // Selector event loops for the nio transport
+    public String threads = "platform"; // "platform" or "virtual"
+    public int decks = Deck.DECKS;
+    public double penetration = Deck.PENETRATION; // Fraction of the shoe dealt before reshuffling
+    public Long seed;                  // Fixed shoe seed for reproducible games; random if unset
+    public int waitingRoom = 1000;     // Connections queued for a seat once every table is full
+    public String shedPolicy = WaitingRoom.REJECT_NEWEST; // Who is turned away when the queue is full
+    public long turnTimeoutMillis = 30_000; // Time a player has for each action before standing; 0 waits forever
+    public long handshakeMillis = 500;  // How long a silent new connection waits before it is seated; RESUME or SPECTATE must come first
+    public int commandRate = 50;       // Lines a client may send per second, on average, beyond the actions its turns ask for; more and it is disconnected. 0 turns the limit off
+    public int commandBurst = 100;     // Lines a client may send at once before the rate applies
+    public long resumeGraceMillis = 30_000; // How long a dropped player's seat is held for them to RESUME; 0 ends the session at once
+    public String registry;            // Node registry to publish load to (memory or file:<dir>); unset runs standalone
+    public String nodeId;              // This node's name in the registry; defaults to host-port
+    public String advertiseHost = "127.0.0.1"; // Address the router uses to reach this node
+    public int spectatorBuffer = 256;  // Table updates kept for spectators to catch up from (a power of two)
+    public String spectatorPolicy = SpectatorFeed.RESYNC; // What happens to a spectator who falls further behind: resync or drop
+    public String journal;             // Directory for the round journal; unset keeps no journal
+    public String history;             // Directory for the columnar hand history; unset keeps none
+    public long startingBankroll = 1000; // Chips in each new player's account
+    public long minBet = 10;           // Also the bet every player starts with
+    public long maxBet = 500;
+    public String ledger;              // File for periodic bankroll snapshots, restored at startup; unset keeps them in memory
+    public long ledgerSnapshotMillis = 5000;
+    public int metricsPort;            // Loopback HTTP port for /metrics and /stats; 0 leaves it off
+    public int statsWindowSeconds = 300; // Span of the windowed round stats; 0 turns them off
+    public int statsThreads = 1;       // Background threads counting settled rounds into the stats
+    public Log.Level logLevel = Log.Level.INFO;
+
+    public static ServerConfig fromSystemProperties() {
+        ServerConfig config = new ServerConfig();
+        config.port = Integer.getInteger("blackjack.port", config.port);
+        config.tables = Integer.getInteger("blackjack.tables", config.tables);
+        config.transport = System.getProperty("blackjack.transport", config.transport);
+        config.ioThreads = Integer.getInteger("blackjack.ioThreads", config.ioThreads);
+        config.threads = System.getProperty("blackjack.threads", config.threads);
+        config.decks = Integer.getInteger("blackjack.decks", config.decks);
+        config.penetration = Double.parseDouble(System.getProperty("blackjack.penetration", String.valueOf(config.penetration)));
+        config.seed = Long.getLong("blackjack.seed");
+        config.waitingRoom = Integer.getInteger("blackjack.waitingRoom", config.waitingRoom);
+        config.shedPolicy = System.getProperty("blackjack.shedPolicy", config.shedPolicy);
+        config.turnTimeoutMillis = Long.getLong("blackjack.turnTimeoutMillis", config.turnTimeoutMillis);
+        config.handshakeMillis = Long.getLong("blackjack.handshakeMillis", config.handshakeMillis);
+        config.commandRate = Integer.getInteger("blackjack.commandRate", config.commandRate);
+        config.commandBurst = Integer.getInteger("blackjack.commandBurst", config.commandBurst);
+        config.resumeGraceMillis = Long.getLong("blackjack.resumeGraceMillis", config.resumeGraceMillis);
+        config.registry = System.getProperty("blackjack.registry");
+        config.nodeId = System.getProperty("blackjack.nodeId");
+        config.advertiseHost = System.getProperty("blackjack.advertiseHost", config.advertiseHost);
+        config.spectatorBuffer = Integer.getInteger("blackjack.spectatorBuffer", config.spectatorBuffer);
+        config.spectatorPolicy = System.getProperty("blackjack.spectatorPolicy", config.spectatorPolicy);
+        config.journal = System.getProperty("blackjack.journal");
+        config.history = System.getProperty("blackjack.history");
+        config.startingBankroll = Long.getLong("blackjack.startingBankroll", config.startingBankroll);
+        config.minBet = Long.getLong("blackjack.minBet", config.minBet);
+        config.maxBet = Long.getLong("blackjack.maxBet", config.maxBet);
+        config.ledger = System.getProperty("blackjack.ledger");
+        config.ledgerSnapshotMillis = Long.getLong("blackjack.ledgerSnapshotMillis", config.ledgerSnapshotMillis);
+        config.metricsPort = Integer.getInteger("blackjack.metricsPort", config.metricsPort);
+        config.statsWindowSeconds = Integer.getInteger("blackjack.statsWindowSeconds", config.statsWindowSeconds);
+        config.statsThreads = Integer.getInteger("blackjack.statsThreads", config.statsThreads);
+        config.logLevel = Log.Level.valueOf(System.getProperty("blackjack.logLevel", config.logLevel.name()).toUpperCase());
+        return config;
+    }
+
+    public boolean useNio() {
+        return "nio".equalsIgnoreCase(transport);
+    }
+
+    public boolean useVirtualThreads() {
+        return "virtual".equalsIgnoreCase(threads);
+    }
+}
@@ -0,0 +1,74 @@
+package application.blackjackxgui;
+
+import java.security.SecureRandom;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// Seated players by session token. Each player is given a token in the welcome; when their
+// connection drops the seat, hands and bankroll are held for the grace period, and a new
+// connection that opens with "RESUME <token>" takes the player back. The token is forgotten
+// once the player leaves for good.
+public class Sessions {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final ConcurrentHashMap<String, PlayerHandler> players = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+    private final long graceMillis;
+
+    public Sessions(ScheduledExecutorService timer, long graceMillis) {
+        this.timer = timer;
+        this.graceMillis = graceMillis;
+    }
+
+    public boolean isEnabled() {
+        return graceMillis > 0;
+    }
+
+    // The player's token, or null when sessions are turned off. A player whose bankroll was
+    // restored after a restart carries on with the token they resumed with, unless another
+    // connection has just taken it; everyone else gets a new one.
+    public String open(PlayerHandler player, String resumedToken) {
+        if (!isEnabled()) {
+            return null;
+        }
+        if (resumedToken != null && players.putIfAbsent(resumedToken, player) == null) {
+            return resumedToken;
+        }
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        String token = HexFormat.of().formatHex(bytes);
+        players.put(token, player);
+        return token;
+    }
+
+    public PlayerHandler get(String token) {
+        return players.get(token);
+    }
+
+    public void close(String token) {
+        if (token != null) {
+            players.remove(token);
+        }
+    }
+
+    // Runs the task once the grace period for a dropped connection is over. Returns null, and
+    // never runs it, once the server is shutting down and its timer has stopped.
+    public ScheduledFuture<?> scheduleExpiry(Runnable task) {
+        if (timer.isShutdown()) {
+            return null;
+        }
+        try {
+            return timer.schedule(task, graceMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return null; // Stopped just now
+        }
+    }
+
+    public long getGraceMillis() {
+        return graceMillis;
+    }
+}
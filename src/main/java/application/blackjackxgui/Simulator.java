@@ -0,0 +1,126 @@
+package application.blackjackxgui;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Headless Monte Carlo engine over the same Rules the live tables use. Rounds are split
+// into shards run on the common fork/join pool; each shard has its own shoe, generator
+// and primitive counters, which are summed once all shards finish.
+//
+// Usage: java application.blackjackxgui.Simulator [rounds] [playersPerRound] [standOn|basic]
+// with -Dblackjack.seed, -Dblackjack.decks and -Dblackjack.penetration as for the server.
+public class Simulator {
+    // Indexes into a shard's counters; outcomes use their ordinals
+    static final int WINS = Outcome.WIN.ordinal();
+    static final int LOSSES = Outcome.LOSS.ordinal();
+    static final int PUSHES = Outcome.PUSH.ordinal();
+    static final int BUSTS = Outcome.BUST.ordinal();
+    static final int BLACKJACKS = Outcome.BLACKJACK.ordinal();
+    static final int HANDS = Outcome.values().length;
+    static final int ROUNDS = HANDS + 1;
+    static final int DEALER_BUSTS = HANDS + 2;
+    static final int COUNTERS = HANDS + 3;
+
+    private final int decks;
+    private final double penetration;
+    private final int playersPerRound;
+    private final PlayerStrategy strategy;
+
+    public Simulator(int decks, double penetration, int playersPerRound, PlayerStrategy strategy) {
+        this.decks = decks;
+        this.penetration = penetration;
+        this.playersPerRound = playersPerRound;
+        this.strategy = strategy;
+    }
+
+    public long[] run(long rounds, long seed) {
+        int shards = Math.max(1, Runtime.getRuntime().availableProcessors() * 8);
+        long[] shardSeeds = new long[shards];
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int i = 0; i < shards; i++) {
+            shardSeeds[i] = seeds.nextLong(); // Drawn up front so results don't depend on scheduling
+        }
+        return IntStream.range(0, shards)
+                .parallel()
+                .mapToObj(shard -> runShard(rounds / shards + (shard < rounds % shards ? 1 : 0), shardSeeds[shard]))
+                .reduce(new long[COUNTERS], Simulator::merge);
+    }
+
+    private long[] runShard(long rounds, long seed) {
+        long[] counters = new long[COUNTERS];
+        Deck deck = new Deck(decks, penetration, new SplittableRandom(seed));
+        Hand dealerHand = new Hand();
+        Hand[] playerHands = new Hand[playersPerRound];
+        for (int i = 0; i < playersPerRound; i++) {
+            playerHands[i] = new Hand();
+        }
+
+        for (long round = 0; round < rounds; round++) {
+            if (deck.needsShuffle()) {
+                deck.shuffle();
+            }
+            // Same deal order as Table: each player's two cards, then the dealer's
+            dealerHand.clear();
+            for (Hand hand : playerHands) {
+                hand.clear();
+                hand.add(deck.drawCard());
+                hand.add(deck.drawCard());
+            }
+            dealerHand.add(deck.drawCard());
+            dealerHand.add(deck.drawCard());
+
+            int upcard = dealerHand.get(0);
+            // A dealer blackjack found by the peek ends the round before anyone acts
+            if (!(Rules.dealerPeeks(upcard) && dealerHand.isBlackjack())) {
+                for (Hand hand : playerHands) {
+                    while (!hand.isBusted() && !Rules.isNatural(hand, 1) && strategy.shouldHit(hand, upcard)) {
+                        hand.add(deck.drawCard());
+                    }
+                }
+            }
+
+            while (Rules.dealerHits(dealerHand)) {
+                dealerHand.add(deck.drawCard());
+            }
+            if (dealerHand.isBusted()) {
+                counters[DEALER_BUSTS]++;
+            }
+            for (Hand hand : playerHands) {
+                counters[Rules.outcome(hand, 1, dealerHand).ordinal()]++;
+            }
+            counters[HANDS] += playersPerRound;
+        }
+        counters[ROUNDS] = rounds;
+        return counters;
+    }
+
+    private static long[] merge(long[] a, long[] b) {
+        long[] sum = new long[COUNTERS];
+        for (int i = 0; i < COUNTERS; i++) {
+            sum[i] = a[i] + b[i];
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : Table.MAX_PLAYERS;
+        PlayerStrategy strategy = PlayerStrategy.parse(args.length > 2 ? args[2] : String.valueOf(Rules.DEALER_STANDS_ON));
+        ServerConfig config = ServerConfig.fromSystemProperties();
+        long seed = config.seed != null ? config.seed : System.nanoTime();
+
+        Simulator simulator = new Simulator(config.decks, config.penetration, players, strategy);
+        long start = System.nanoTime();
+        long[] counters = simulator.run(rounds, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        double hands = counters[HANDS];
+        System.out.printf("Simulated %,d rounds (%,d hands) in %.2f s with seed %d%n", counters[ROUNDS], counters[HANDS], seconds, seed);
+        System.out.printf("Throughput: %,.0f hands/s%n", hands / seconds);
+        System.out.printf("Win %.3f%%  Blackjack %.3f%%  Push %.3f%%  Loss %.3f%%  Bust %.3f%%  Dealer bust %.3f%%%n",
+                100 * counters[WINS] / hands, 100 * counters[BLACKJACKS] / hands, 100 * counters[PUSHES] / hands,
+                100 * counters[LOSSES] / hands, 100 * counters[BUSTS] / hands, 100.0 * counters[DEALER_BUSTS] / counters[ROUNDS]);
+        System.out.printf("House edge (hit or stand only, naturals paying 3 to 2): %.3f%%%n",
+                100 * (counters[LOSSES] + counters[BUSTS] - counters[WINS] - 1.5 * counters[BLACKJACKS]) / hands);
+    }
+}
@@ -0,0 +1,225 @@
+package application.blackjackxgui;
+
+import java.io.*;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Blocking transport: one thread per connection runs the read loop, which frames lines in
+// its own buffer the way NioConnection does, with the same longest line.
+//
+// The loop starts out on a thread for the handshake. Once the handshake has placed the
+// connection, a spectator's loop stays where it is, while a player's stops and returns from
+// run() with isMoving() true, to be carried on by a player thread; bytes already read wait in
+// the buffer for it.
+//
+// Writes are queued and sent by the connection's own virtual writer thread, so the game
+// never blocks on a client that stops reading; past the same bound as NioConnection's queue
+// the client is dropped.
+public class SocketConnection implements Connection, Runnable {
+    static final int HANDSHAKE_POLL_MILLIS = 50; // How soon a waiting read notices the handshake is over
+    private static final byte[] STOP = new byte[0]; // Ends the writer after what was queued before it; compared by identity
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final LinkedBlockingQueue<byte[]> writeQueue = new LinkedBlockingQueue<>();
+    private final AtomicInteger queuedBytes = new AtomicInteger();
+    private volatile boolean closing;
+    private final InputStream in;
+    private final byte[] readBuffer = new byte[NioConnection.READ_BUFFER_SIZE];
+    private final RateLimiter limiter; // Null when commands aren't limited
+    private volatile ConnectionListener listener;
+    private int filled; // Bytes in readBuffer not yet framed into lines
+    private boolean handshaking = true;
+    private volatile boolean placed; // Set by the handshake once it knows what the connection is
+    private volatile boolean player;
+    private boolean moving;
+
+    public SocketConnection(Socket socket, RateLimiter limiter) throws IOException {
+        this.socket = socket;
+        this.out = new BufferedOutputStream(socket.getOutputStream());
+        this.in = socket.getInputStream();
+        this.limiter = limiter;
+        socket.setSoTimeout(HANDSHAKE_POLL_MILLIS);
+        Thread.ofVirtual().name("writer-" + socket.getPort()).start(this::writeLoop);
+    }
+
+    @Override
+    public void run() {
+        moving = false;
+        try {
+            int scanned = 0; // Bytes already searched for a newline
+            while (true) {
+                int lineStart = 0;
+                for (int i = scanned; i < filled && !moving; i++) {
+                    if (readBuffer[i] == '\n') {
+                        if (!deliverLine(lineStart, i) || closing) {
+                            return; // Dropped, here or by the game: the rest of the buffer isn't acted on
+                        }
+                        lineStart = i + 1;
+                        leaveHandshake();
+                    }
+                }
+                filled -= lineStart;
+                System.arraycopy(readBuffer, lineStart, readBuffer, 0, filled);
+                if (filled == readBuffer.length) {
+                    Log.warn("Dropping client {}: line too long", getRemoteAddress());
+                    return;
+                }
+                if (moving || leaveHandshake()) {
+                    return; // A player thread carries on from the lines left in the buffer
+                }
+                scanned = filled;
+                try {
+                    int read = in.read(readBuffer, filled, readBuffer.length - filled);
+                    if (read <= 0) {
+                        return;
+                    }
+                    filled += read;
+                } catch (SocketTimeoutException e) {
+                    // Only while handshaking: look again whether it is over
+                }
+            }
+        } catch (IOException e) {
+            // Treated the same as end of stream
+        } finally {
+            if (!moving) {
+                close();
+                listener.onClose();
+            }
+        }
+    }
+
+    // Once the handshake has placed the connection, stops polling; true if the loop is to
+    // move to a player thread
+    private boolean leaveHandshake() throws SocketException {
+        if (!handshaking || !placed) {
+            return moving;
+        }
+        handshaking = false;
+        socket.setSoTimeout(0);
+        moving = player;
+        return moving;
+    }
+
+    @Override
+    public void placed(boolean player) {
+        this.player = player;
+        this.placed = true;
+    }
+
+    // True when run() returned to be carried on by a player thread rather than because the
+    // connection ended
+    public boolean isMoving() {
+        return moving;
+    }
+
+    // Returns false if the client has used up its commands and is to be dropped
+    private boolean deliverLine(int start, int end) {
+        if (end > start && readBuffer[end - 1] == '\r') {
+            end--;
+        }
+        if (limiter != null && !limiter.tryAcquire(System.nanoTime())) {
+            Log.warn("Dropping client {}: more than {} commands per second", getRemoteAddress(), limiter.getRate());
+            Metrics.floodDrops.increment();
+            send(RateLimiter.NOTICE);
+            return false;
+        }
+        listener.onLine(readBuffer, start, end - start);
+        return true;
+    }
+
+    @Override
+    public void send(String line) {
+        write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void write(byte[] bytes) {
+        if (closing) {
+            return;
+        }
+        int queued = queuedBytes.addAndGet(bytes.length);
+        Metrics.outboundQueueBytes.record(queued);
+        if (queued > NioConnection.MAX_QUEUED_BYTES) {
+            Log.warn("Dropping slow client {}: outbound queue full", getRemoteAddress());
+            Metrics.slowClientDrops.increment();
+            closing = true;
+            writeQueue.clear();
+            writeQueue.add(STOP);
+            closeSocket(); // Also wakes the writer if it is stuck on the full socket
+            return;
+        }
+        writeQueue.add(bytes);
+    }
+
+    // Sends queued writes in order, flushing whenever the queue runs dry, until close() or a
+    // broken socket
+    private void writeLoop() {
+        try {
+            while (true) {
+                byte[] bytes = writeQueue.take();
+                if (bytes == STOP) {
+                    out.flush();
+                    break;
+                }
+                out.write(bytes);
+                if (writeQueue.isEmpty()) {
+                    out.flush();
+                }
+                queuedBytes.addAndGet(-bytes.length);
+                Metrics.bytesWritten.add(bytes.length);
+            }
+        } catch (IOException e) {
+            // The read loop sees the broken socket and reports the disconnection
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closing = true;
+            writeQueue.clear();
+            closeSocket();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        writeQueue.add(STOP);
+    }
+
+    private void closeSocket() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            Log.warn("Error closing client socket: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public String getRemoteAddress() {
+        return String.valueOf(socket.getInetAddress());
+    }
+
+    @Override
+    public int getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    @Override
+    public void refundCommand() {
+        if (limiter != null) {
+            limiter.refund();
+        }
+    }
+
+    @Override
+    public void setListener(ConnectionListener listener) {
+        this.listener = listener;
+    }
+}
@@ -0,0 +1,184 @@
+package application.blackjackxgui;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Read-only observers of one table. Each flush of table updates, already encoded once per
+// protocol, is published into a ring holding the last few flushes. Publishing is a store and a
+// signal on the table's thread; every spectator has its own cursor into the ring and its own
+// delivery task, so the round never waits on a spectator's socket however many are watching.
+//
+// Delivery stops while a spectator's unsent output is over MAX_BACKLOG_BYTES and picks up at
+// the next publish, so a slow reader's lag piles up as ring distance rather than queued
+// bytes. One that falls a whole ring behind is resynced from a fresh table snapshot
+// ("resync") or disconnected ("drop").
+public class SpectatorFeed {
+    public static final String RESYNC = "resync";
+    public static final String DROP = "drop";
+    static final int MAX_BACKLOG_BYTES = 16 * 1024;
+
+    private final Table table;
+    private final AtomicReferenceArray<Entry> ring;
+    private final int mask;
+    private final boolean dropLaggards;
+    private final Executor executor; // Runs delivery; a blocked socket holds up only its own spectator
+    private final Set<Spectator> spectators = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger fanOutSignals = new AtomicInteger();
+    private volatile long head; // Sequence of the next entry; written only under the table lock
+
+    private record Entry(long sequence, byte[] text, byte[] binary) {
+    }
+
+    public SpectatorFeed(Table table, int capacity, String policy, Executor executor) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Spectator buffer must be a power of two");
+        }
+        this.table = table;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.dropLaggards = DROP.equalsIgnoreCase(policy);
+        this.executor = executor;
+    }
+
+    // Called by the table under its lock with the frames every seated player was just sent
+    void publish(byte[] text, byte[] binary) {
+        if (spectators.isEmpty()) {
+            return; // A spectator who joins later starts from a snapshot
+        }
+        long sequence = head;
+        ring.set((int) sequence & mask, new Entry(sequence, text, binary));
+        head = sequence + 1;
+        if (fanOutSignals.getAndIncrement() == 0) {
+            executor.execute(this::fanOut);
+        }
+    }
+
+    // Wakes every spectator's delivery, off the table's thread. Publishes that land meanwhile
+    // are covered by another pass.
+    private void fanOut() {
+        int seen;
+        do {
+            seen = fanOutSignals.get();
+            for (Spectator spectator : spectators) {
+                spectator.schedule();
+            }
+        } while (!fanOutSignals.compareAndSet(seen, 0));
+    }
+
+    // Starts streaming the table to a connection; the first thing it gets is a snapshot
+    public Spectator subscribe(Connection connection) {
+        Spectator spectator = new Spectator(connection);
+        spectators.add(spectator);
+        Metrics.spectators.increment();
+        spectator.schedule();
+        return spectator;
+    }
+
+    long getHead() {
+        return head;
+    }
+
+    public int size() {
+        return spectators.size();
+    }
+
+    // One observer. Everything written to its connection is written by its delivery task, one
+    // task at a time, including the protocol switch and resyncs.
+    public final class Spectator implements ConnectionListener {
+        private final Connection connection;
+        private final AtomicInteger signals = new AtomicInteger();
+        private long cursor;               // Next entry to send
+        private boolean binary;
+        private boolean synced;
+        private volatile boolean binaryRequested;
+        private volatile boolean closed;
+
+        private Spectator(Connection connection) {
+            this.connection = connection;
+        }
+
+        void schedule() {
+            if (!closed && signals.getAndIncrement() == 0) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        private void deliver() {
+            int seen;
+            do {
+                seen = signals.get();
+                catchUp();
+            } while (!signals.compareAndSet(seen, 0));
+        }
+
+        private void catchUp() {
+            if (closed) {
+                return;
+            }
+            if (binaryRequested && !binary) {
+                connection.send(BinaryProtocol.ACCEPTED);
+                binary = true;
+                synced = false; // Everything from here on is binary, starting with a snapshot
+            }
+            if (!synced) {
+                resync();
+            }
+            while (cursor < head) {
+                if (connection.getQueuedBytes() > MAX_BACKLOG_BYTES) {
+                    return; // Tried again at the next publish
+                }
+                Entry entry = ring.get((int) cursor & mask);
+                if (entry == null || entry.sequence() != cursor) {
+                    if (!fellBehind()) {
+                        return;
+                    }
+                    continue;
+                }
+                connection.write(binary ? entry.binary() : entry.text());
+                cursor++;
+            }
+        }
+
+        // The entry it needed next has been overwritten. Returns false if it was dropped.
+        private boolean fellBehind() {
+            Metrics.spectatorOverruns.increment();
+            if (dropLaggards) {
+                closed = true;
+                Log.debug("Table {}: dropping spectator {}, a full buffer behind", table.getTableId(), connection.getRemoteAddress());
+                connection.send("INFO|You fell too far behind the table and were disconnected.");
+                connection.close();
+                return false;
+            }
+            resync();
+            return true;
+        }
+
+        private void resync() {
+            WireEncoder snapshot = binary ? new BinaryEncoder() : new TextEncoder();
+            cursor = table.spectatorSnapshot(snapshot);
+            connection.write(snapshot.drain());
+            synced = true;
+        }
+
+        @Override
+        public void onLine(String line) {
+            if (line.regionMatches(true, 0, BinaryProtocol.REQUEST, 0, BinaryProtocol.REQUEST.length())
+                    && line.substring(BinaryProtocol.REQUEST.length()).trim().equalsIgnoreCase(BinaryProtocol.VERSION)) {
+                binaryRequested = true;
+                schedule();
+            }
+            // Spectators can't act; anything else is ignored
+        }
+
+        @Override
+        public void onClose() {
+            closed = true;
+            if (spectators.remove(this)) {
+                Metrics.spectators.decrement();
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package application.blackjackxgui;
+
+import java.io.*;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cold-start time of a server node, measured from outside. Each run launches BlackjackServer
+// in a fresh JVM on this classpath, connects three players as soon as its port opens, and
+// times their welcome and the first table's deal from the moment the process was started.
+// Runs alternate between the JDK's default class-data archive and the AppCDS archive, if one
+// is given, so the saving is measured against a baseline taken under the same conditions.
+//
+// "train" builds that archive instead: one server is started with -XX:ArchiveClassesAtExit,
+// played through a full round by a text player, two bin1 players and a spectator so that the
+// classes of every hot path are loaded, and stopped. bin/blackjack-server runs it whenever
+// the jar is newer than the archive.
+//
+// Usage: java application.blackjackxgui.StartupBenchmark [runs] [archive]
+//        java application.blackjackxgui.StartupBenchmark train <archive>
+public class StartupBenchmark {
+    private static final int TIMEOUT_MILLIS = 30_000;
+    private static final byte[] PROTOCOL = (BinaryProtocol.REQUEST + BinaryProtocol.VERSION + "\n").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ACT = "HINT\nSTAND\n".getBytes(StandardCharsets.US_ASCII);
+
+    // One launch: milliseconds from starting the process to the first player's welcome and
+    // to the first table's deal
+    private record Startup(double welcome, double dealt) {
+    }
+
+    private static Startup measure(String... jvmOptions) throws IOException, InterruptedException {
+        int port = freePort();
+        long start = System.nanoTime();
+        Process server = launch(port, jvmOptions);
+        Socket[] players = new Socket[Table.MAX_PLAYERS];
+        try {
+            DataInputStream[] in = new DataInputStream[players.length];
+            for (int i = 0; i < players.length; i++) {
+                players[i] = connect(port, start);
+                players[i].getOutputStream().write(PROTOCOL);
+                in[i] = input(players[i]);
+            }
+            readLine(in[0]);
+            double welcome = (System.nanoTime() - start) / 1e6;
+            awaitDeal(in[0]); // Seating the third player started the round
+            return new Startup(welcome, (System.nanoTime() - start) / 1e6);
+        } finally {
+            close(players);
+            stop(server);
+        }
+    }
+
+    // Records the classes a server loads from startup to the end of its first round
+    private static void train(Path archive) throws IOException, InterruptedException {
+        Files.deleteIfExists(archive);
+        int port = freePort();
+        long start = System.nanoTime();
+        Process server = launch(port, "-XX:ArchiveClassesAtExit=" + archive);
+        Socket[] sockets = new Socket[Table.MAX_PLAYERS + 1];
+        try {
+            // Each connection sends its first line at once, inside the handshake window. Seat 1
+            // stays on text; the spectator comes last, to watch the full table.
+            DataInputStream[] in = new DataInputStream[sockets.length];
+            for (int i = 0; i < sockets.length; i++) {
+                sockets[i] = connect(port, start);
+                in[i] = input(sockets[i]);
+                if (i == 0) {
+                    sockets[i].getOutputStream().write("HINT\n".getBytes(StandardCharsets.US_ASCII));
+                    readLine(in[i]); // Welcome: seated
+                    continue;
+                }
+                if (i == Table.MAX_PLAYERS) {
+                    sockets[i].getOutputStream().write((BinaryProtocol.SPECTATE + "1\n").getBytes(StandardCharsets.US_ASCII));
+                }
+                sockets[i].getOutputStream().write(PROTOCOL);
+                awaitBinary(in[i]);
+            }
+
+            // Turns go round the table in seat order, then every player is paid
+            readUntilLine(in[0], "Your turn");
+            sockets[0].getOutputStream().write(ACT);
+            for (int i = 1; i < Table.MAX_PLAYERS; i++) {
+                readUntilFrame(in[i], BinaryProtocol.YOUR_TURN);
+                sockets[i].getOutputStream().write(ACT);
+            }
+            readUntilLine(in[0], "BANKROLL|Paid");
+            for (int i = 1; i < Table.MAX_PLAYERS; i++) {
+                readUntilFrame(in[i], BinaryProtocol.PAYOUT);
+            }
+            readUntilFrame(in[Table.MAX_PLAYERS], BinaryProtocol.DEALER_FINAL);
+        } finally {
+            close(sockets);
+            stop(server); // The archive is written as the JVM exits
+        }
+        if (!Files.exists(archive)) {
+            throw new IOException("The server exited without writing " + archive);
+        }
+        System.out.printf("Wrote %s (%,d KB) in %.1f s%n", archive, Files.size(archive) / 1024, (System.nanoTime() - start) / 1e9);
+    }
+
+    private static Process launch(int port, String... jvmOptions) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(jvmOptions));
+        command.add("-Dblackjack.port=" + port);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path")); // An archive only applies to the classpath it was made with
+        command.add(BlackjackServer.class.getName());
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    // Retries until the server has bound its port
+    private static Socket connect(int port, long start) throws IOException, InterruptedException {
+        while (true) {
+            try {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                socket.setSoTimeout(TIMEOUT_MILLIS);
+                socket.setTcpNoDelay(true);
+                return socket;
+            } catch (ConnectException e) {
+                if (System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS)) {
+                    throw e;
+                }
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static DataInputStream input(Socket socket) throws IOException {
+        return new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    }
+
+    private static String readLine(DataInputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                throw new EOFException("Connection closed by the server");
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void readUntilLine(DataInputStream in, String prefix) throws IOException {
+        while (!readLine(in).startsWith(prefix)) {
+            // Other players' hands and turns
+        }
+    }
+
+    // Skips the text lines sent before the server switches the connection to bin1
+    private static void awaitBinary(DataInputStream in) throws IOException {
+        while (!readLine(in).equals(BinaryProtocol.ACCEPTED)) {
+            // Welcome, session token and queue position
+        }
+    }
+
+    // The player's first two cards. A player seated as the table filled may be dealt them in
+    // text, before its switch to bin1 is handled.
+    private static void awaitDeal(DataInputStream in) throws IOException {
+        String line;
+        while (!(line = readLine(in)).equals(BinaryProtocol.ACCEPTED)) {
+            if (line.startsWith("Your initial hand")) {
+                return;
+            }
+        }
+        readUntilFrame(in, BinaryProtocol.INITIAL_HAND);
+    }
+
+    private static void readUntilFrame(DataInputStream in, int opcode) throws IOException {
+        byte[] frame = new byte[BinaryProtocol.MAX_FRAME];
+        int type;
+        do {
+            int length = in.readUnsignedShort();
+            in.readFully(frame, 0, length);
+            type = frame[0];
+        } while (type != opcode);
+    }
+
+    private static void close(Socket[] sockets) {
+        for (Socket socket : sockets) {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // Closing anyway
+                }
+            }
+        }
+    }
+
+    private static void stop(Process server) throws InterruptedException {
+        server.destroy(); // A normal shutdown, so the JVM's exit work runs
+        if (!server.waitFor(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            server.destroyForcibly().waitFor();
+        }
+    }
+
+    private static String summary(double[] millis) {
+        double[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        return String.format("%6.0f ms (%.0f-%.0f)", sorted[sorted.length / 2], sorted[0], sorted[sorted.length - 1]);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length > 0 && args[0].equals("train")) {
+            if (args.length != 2) {
+                System.err.println("Usage: StartupBenchmark train <archive>");
+                System.exit(2);
+            }
+            train(Path.of(args[1]));
+            return;
+        }
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Path archive = args.length > 1 ? Path.of(args[1]) : null;
+        if (archive != null && !Files.exists(archive)) {
+            System.err.println("No archive at " + archive + "; create it with: StartupBenchmark train " + archive);
+            System.exit(2);
+        }
+        String[][] modes = archive != null
+                ? new String[][] {{}, {"-XX:SharedArchiveFile=" + archive}}
+                : new String[][] {{}};
+        String[] names = {"default CDS", "AppCDS archive"};
+
+        for (String[] options : modes) {
+            measure(options); // Untimed, so the jar and archive are in the page cache
+        }
+        double[][] welcome = new double[modes.length][runs];
+        double[][] dealt = new double[modes.length][runs];
+        for (int run = 0; run < runs; run++) {
+            for (int mode = 0; mode < modes.length; mode++) {
+                Startup startup = measure(modes[mode]);
+                welcome[mode][run] = startup.welcome();
+                dealt[mode][run] = startup.dealt();
+            }
+        }
+
+        System.out.printf("Server startup over %d runs, median (min-max) from process start:%n", runs);
+        System.out.println("                  first welcome         first table dealt");
+        for (int mode = 0; mode < modes.length; mode++) {
+            System.out.printf("%-16s  %-20s  %s%n", names[mode], summary(welcome[mode]), summary(dealt[mode]));
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package application.blackjackxgui;
+
+// Basic strategy for the house rules, worked out once when the class loads and then served
+// from flat arrays, so a lookup is an index calculation and a load with no allocation.
+//
+// The tables assume an infinite shoe (each rank drawn with its natural probability, tens
+// four times as likely), which is within a fraction of a percent of a multi-deck shoe and
+// doesn't depend on what has been dealt. Payouts follow Rules: even money, the dealer stands
+// on all 17s, and a player only acts once the dealer has peeked, so the player's odds are
+// worked out against a dealer known not to hold blackjack. Naturals stand on their own and
+// are never looked up.
+//
+// Two-card hands may also double, and pairs split. A split is valued as two hands that each
+// draw a card and then play on, doubling allowed but without splitting again; split aces
+// take their one card and stand.
+//
+// Indexes: the dealer upcard by its hard value (ace 1 .. ten 10), the player's hand by its
+// best total and whether an ace is counting as 11, a pair by its card value.
+public final class StrategyTable {
+    public static final int STAND = 0;
+    public static final int HIT = 1;
+    public static final int DOUBLE = 2;
+    public static final int SPLIT = 3;
+
+    private static final String[] NAMES = {"STAND", "HIT", "DOUBLE", "SPLIT"};
+
+    public static final int BUST = 22; // Dealer "final total" for a bust
+
+    private static final int UPCARDS = 10;
+    private static final int TOTALS = 22;
+    private static final int DEALER_FINALS = 6; // 17..21, bust
+    private static final double TEN = 4.0 / 13;
+    private static final double OTHER = 1.0 / 13;
+
+    // [upcard][final]: probability of the dealer ending on 17..21 or busting
+    private static final double[] DEALER = new double[UPCARDS * DEALER_FINALS];
+    // The same, given the dealer has peeked and has no blackjack
+    private static final double[] DEALER_PEEKED = new double[UPCARDS * DEALER_FINALS];
+    // [soft][total][upcard]: best of hit and stand, and its expected return per unit bet
+    private static final byte[] ACTIONS = new byte[2 * TOTALS * UPCARDS];
+    private static final float[] RETURNS = new float[2 * TOTALS * UPCARDS];
+    // [soft][total][upcard]: the same for a hand's first two cards, which may also double
+    private static final byte[] FIRST_ACTIONS = new byte[2 * TOTALS * UPCARDS];
+    private static final float[] FIRST_RETURNS = new float[2 * TOTALS * UPCARDS];
+    // [card value][upcard]: the same for a pair, which may also split
+    private static final byte[] PAIR_ACTIONS = new byte[UPCARDS * UPCARDS];
+    private static final float[] PAIR_RETURNS = new float[UPCARDS * UPCARDS];
+    // For a hand that can't take a card, such as split aces: [total][upcard] for standing and
+    // [card value][upcard] for splitting again
+    private static final float[] STAND_RETURNS = new float[TOTALS * UPCARDS];
+    private static final float[] SPLIT_RETURNS = new float[UPCARDS * UPCARDS];
+
+    static {
+        for (int up = 1; up <= 10; up++) {
+            computeDealer(up);
+            computePlayer(up);
+        }
+    }
+
+    private StrategyTable() {
+    }
+
+    // Best of hit and stand, for a hand that can't double or split
+    public static int action(int total, boolean soft, int dealerUpcard) {
+        if (total > 21) {
+            return STAND;
+        }
+        return ACTIONS[index(total, soft, Card.value(dealerUpcard))];
+    }
+
+    // Best action for the hand, given whether the seat may still double or split it
+    public static int action(Hand hand, int dealerUpcard, boolean canDouble, boolean canSplit) {
+        return action(hand, dealerUpcard, canDouble, canSplit, true);
+    }
+
+    // The same for a hand that may not be able to take a card, such as split aces, which only
+    // stand or split again
+    public static int action(Hand hand, int dealerUpcard, boolean canDouble, boolean canSplit, boolean canHit) {
+        int up = Card.value(dealerUpcard);
+        if (!canHit) {
+            boolean split = canSplit && Rules.isPair(hand) && hand.getValue() <= 21
+                    && SPLIT_RETURNS[pairIndex(Card.value(hand.get(0)), up)] > STAND_RETURNS[standIndex(hand.getValue(), up)];
+            return split ? SPLIT : STAND;
+        }
+        if (canSplit && Rules.isPair(hand)) {
+            return PAIR_ACTIONS[pairIndex(Card.value(hand.get(0)), up)];
+        }
+        int total = hand.getValue();
+        if (total > 21) {
+            return STAND;
+        }
+        return (canDouble ? FIRST_ACTIONS : ACTIONS)[index(total, hand.isSoft(), up)];
+    }
+
+    public static boolean shouldHit(int total, boolean soft, int dealerUpcard) {
+        return action(total, soft, dealerUpcard) == HIT;
+    }
+
+    // Expected return of the best action, e.g. -0.12 loses 12% of the bet on average
+    public static float expectedReturn(int total, boolean soft, int dealerUpcard) {
+        if (total > 21) {
+            return -1;
+        }
+        return RETURNS[index(total, soft, Card.value(dealerUpcard))];
+    }
+
+    // Expected return of the best action for the hand, as action(Hand, ...) picks it
+    public static float expectedReturn(Hand hand, int dealerUpcard, boolean canDouble, boolean canSplit) {
+        return expectedReturn(hand, dealerUpcard, canDouble, canSplit, true);
+    }
+
+    public static float expectedReturn(Hand hand, int dealerUpcard, boolean canDouble, boolean canSplit, boolean canHit) {
+        int up = Card.value(dealerUpcard);
+        if (!canHit) {
+            if (hand.getValue() > 21) {
+                return -1;
+            }
+            float stand = STAND_RETURNS[standIndex(hand.getValue(), up)];
+            return canSplit && Rules.isPair(hand) ? Math.max(stand, SPLIT_RETURNS[pairIndex(Card.value(hand.get(0)), up)]) : stand;
+        }
+        if (canSplit && Rules.isPair(hand)) {
+            return PAIR_RETURNS[pairIndex(Card.value(hand.get(0)), up)];
+        }
+        int total = hand.getValue();
+        if (total > 21) {
+            return -1;
+        }
+        return (canDouble ? FIRST_RETURNS : RETURNS)[index(total, hand.isSoft(), up)];
+    }
+
+    public static String name(int action) {
+        return NAMES[action];
+    }
+
+    // Probability that a dealer showing this card finishes on finalTotal (17..21, or BUST)
+    public static double dealerFinal(int dealerUpcard, int finalTotal) {
+        if (finalTotal < Rules.DEALER_STANDS_ON || finalTotal > BUST) {
+            return 0;
+        }
+        return DEALER[(Card.value(dealerUpcard) - 1) * DEALER_FINALS + finalTotal - Rules.DEALER_STANDS_ON];
+    }
+
+    private static int index(int total, boolean soft, int upValue) {
+        return ((soft ? TOTALS : 0) + total) * UPCARDS + upValue - 1;
+    }
+
+    private static int standIndex(int total, int upValue) {
+        return total * UPCARDS + upValue - 1;
+    }
+
+    private static int pairIndex(int cardValue, int upValue) {
+        return (cardValue - 1) * UPCARDS + upValue - 1;
+    }
+
+    private static double probability(int value) {
+        return value == 10 ? TEN : OTHER;
+    }
+
+    // The dealer's outcome distribution from every (hard total, holds an ace) state, filled in
+    // from high totals down so each draw lands on a state already worked out
+    private static void computeDealer(int up) {
+        int maxHard = 27; // 16 + 10 is the largest total the dealer can reach
+        double[][][] from = new double[maxHard][2][];
+        for (int hard = maxHard - 1; hard >= 1; hard--) {
+            for (int ace = 0; ace < 2; ace++) {
+                double[] finals = new double[DEALER_FINALS];
+                int value = ace == 1 && hard + 10 <= 21 ? hard + 10 : hard;
+                if (hard > 21) {
+                    finals[DEALER_FINALS - 1] = 1;
+                } else if (value >= Rules.DEALER_STANDS_ON) {
+                    finals[value - Rules.DEALER_STANDS_ON] = 1;
+                } else {
+                    for (int card = 1; card <= 10; card++) {
+                        double[] next = from[hard + card][card == 1 ? 1 : ace];
+                        for (int f = 0; f < DEALER_FINALS; f++) {
+                            finals[f] += probability(card) * next[f];
+                        }
+                    }
+                }
+                from[hard][ace] = finals;
+            }
+        }
+        System.arraycopy(from[up][up == 1 ? 1 : 0], 0, DEALER, (up - 1) * DEALER_FINALS, DEALER_FINALS);
+
+        // A dealer blackjack is the hole card making 21 straight away, so taking it out of the
+        // 21s and scaling the rest back up gives the odds once the peek has come up empty
+        double blackjack = up == 1 ? TEN : up == 10 ? OTHER : 0;
+        for (int f = 0; f < DEALER_FINALS; f++) {
+            double p = DEALER[(up - 1) * DEALER_FINALS + f];
+            if (Rules.DEALER_STANDS_ON + f == 21) {
+                p -= blackjack;
+            }
+            DEALER_PEEKED[(up - 1) * DEALER_FINALS + f] = p / (1 - blackjack);
+        }
+    }
+
+    // Standing, hitting once and then playing on optimally, for every player hand. Hard 11-21
+    // only lead to higher hard totals, soft totals to higher soft or hard 12+, and hard 2-10
+    // to anything above them, which fixes the order they are filled in. Doubling and
+    // splitting only lead to hands already filled in, so they come last.
+    private static void computePlayer(int up) {
+        double[] stand = new double[TOTALS];
+        for (int total = 2; total <= 21; total++) {
+            double ret = 0;
+            for (int f = 0; f < DEALER_FINALS; f++) {
+                double p = DEALER_PEEKED[(up - 1) * DEALER_FINALS + f];
+                int dealer = Rules.DEALER_STANDS_ON + f;
+                if (dealer == BUST || total > dealer) {
+                    ret += p;
+                } else if (total < dealer) {
+                    ret -= p;
+                }
+            }
+            stand[total] = ret;
+            STAND_RETURNS[standIndex(total, up)] = (float) ret;
+        }
+        for (int total = 21; total >= 11; total--) {
+            settle(up, total, false, stand[total], hit(up, total, false));
+        }
+        for (int total = 21; total >= 12; total--) {
+            settle(up, total, true, stand[total], hit(up, total, true));
+        }
+        for (int total = 10; total >= 2; total--) {
+            settle(up, total, false, stand[total], hit(up, total, false));
+        }
+        for (int soft = 0; soft < 2; soft++) {
+            for (int total = soft == 1 ? 12 : 4; total <= 21; total++) {
+                int i = index(total, soft == 1, up);
+                double doubled = doubleDown(up, total, soft == 1, stand);
+                FIRST_ACTIONS[i] = doubled > RETURNS[i] ? DOUBLE : ACTIONS[i];
+                FIRST_RETURNS[i] = (float) Math.max(doubled, RETURNS[i]);
+            }
+        }
+        for (int card = 1; card <= 10; card++) {
+            int total = card == 1 ? 12 : 2 * card;
+            int i = index(total, card == 1, up);
+            double split = split(up, card, stand);
+            int p = pairIndex(card, up);
+            SPLIT_RETURNS[p] = (float) split;
+            PAIR_ACTIONS[p] = split > FIRST_RETURNS[i] ? SPLIT : FIRST_ACTIONS[i];
+            PAIR_RETURNS[p] = (float) Math.max(split, FIRST_RETURNS[i]);
+        }
+    }
+
+    private static double hit(int up, int total, boolean soft) {
+        double ret = 0;
+        for (int card = 1; card <= 10; card++) {
+            int next = next(total, soft, card);
+            ret += probability(card) * (next > 21 ? -1 : RETURNS[index(next, isSoft(total, soft, card), up)]);
+        }
+        return ret;
+    }
+
+    // Twice the stake on exactly one more card
+    private static double doubleDown(int up, int total, boolean soft, double[] stand) {
+        double ret = 0;
+        for (int card = 1; card <= 10; card++) {
+            int next = next(total, soft, card);
+            ret += probability(card) * (next > 21 ? -1 : stand[next]);
+        }
+        return 2 * ret;
+    }
+
+    // Two hands, each starting from one card of the pair and drawing its second
+    private static double split(int up, int pairCard, double[] stand) {
+        int total = pairCard == 1 ? 11 : pairCard;
+        double ret = 0;
+        for (int card = 1; card <= 10; card++) {
+            int next = next(total, pairCard == 1, card);
+            boolean nextSoft = isSoft(total, pairCard == 1, card);
+            ret += probability(card) * (pairCard == 1 ? stand[next] : FIRST_RETURNS[index(next, nextSoft, up)]);
+        }
+        return 2 * ret;
+    }
+
+    // Best total after drawing a card: an ace counts 11 if it fits, and a soft hand that would
+    // bust drops its ace back to 1
+    private static int next(int total, boolean soft, int card) {
+        int next = total + card;
+        if (card == 1 && !soft && next + 10 <= 21) {
+            return next + 10;
+        }
+        return next > 21 && soft ? next - 10 : next;
+    }
+
+    private static boolean isSoft(int total, boolean soft, int card) {
+        if (soft) {
+            return total + card <= 21;
+        }
+        return card == 1 && total + 11 <= 21;
+    }
+
+    private static void settle(int up, int total, boolean soft, double stand, double hit) {
+        int i = index(total, soft, up);
+        ACTIONS[i] = (byte) (hit > stand ? HIT : STAND);
+        RETURNS[i] = (float) Math.max(hit, stand);
+    }
+
+    // Prints the chart for a hand's first two cards, H, S, D or P against each upcard, then
+    // the dealer odds before the peek
+    public static void main(String[] args) {
+        StringBuilder chart = new StringBuilder("        2  3  4  5  6  7  8  9 10  A\n");
+        for (int soft = 0; soft < 2; soft++) {
+            for (int total = soft == 1 ? 13 : 5; total <= 20; total++) {
+                chart.append(String.format("%s %2d  ", soft == 1 ? "soft" : "hard", total));
+                for (int up = 2; up <= 11; up++) {
+                    int value = up == 11 ? 1 : up;
+                    chart.append(' ').append("SHDP".charAt(FIRST_ACTIONS[index(total, soft == 1, value)])).append(' ');
+                }
+                chart.append('\n');
+            }
+        }
+        for (int card = 2; card <= 11; card++) {
+            int pair = card == 11 ? 1 : card;
+            chart.append(String.format("pair %-3s", card == 11 ? "A" : String.valueOf(card)));
+            for (int up = 2; up <= 11; up++) {
+                int value = up == 11 ? 1 : up;
+                chart.append(' ').append("SHDP".charAt(PAIR_ACTIONS[pairIndex(pair, value)])).append(' ');
+            }
+            chart.append('\n');
+        }
+        chart.append("\nDealer  17     18     19     20     21     bust\n");
+        for (int up = 2; up <= 11; up++) {
+            int value = up == 11 ? 1 : up;
+            chart.append(String.format("%-6s", up == 11 ? "A" : String.valueOf(up)));
+            for (int f = 0; f < DEALER_FINALS; f++) {
+                chart.append(String.format("%6.3f ", DEALER[(value - 1) * DEALER_FINALS + f]));
+            }
+            chart.append('\n');
+        }
+        System.out.print(chart);
+    }
+}
@@ -0,0 +1,626 @@
+package application.blackjackxgui;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+public class Table {
+    public static final int MAX_PLAYERS = 3;
+
+    private final int tableId;
+    private final Executor gameExecutor;
+    private final ScheduledExecutorService turnTimer; // Shared by all tables for action deadlines
+    private final long turnTimeoutMillis;
+    private final Journal journal;
+    private final Ledger ledger;
+    private final RoundStats stats;
+    private final HandHistory history;
+    private final HandHistory.Row historyRow = new HandHistory.Row();
+    private final int[] roundTally = new int[Outcome.values().length]; // The round's hands by outcome, for stats
+    private final Ledger.Batch settlements = new Ledger.Batch(MAX_PLAYERS);
+    private final Outcome[] roundOutcomes = new Outcome[MAX_PLAYERS * Rules.MAX_HANDS]; // By seat, then hand
+    private final long[] roundPayouts = new long[MAX_PLAYERS];
+    private final PlayerHandler[] brokePlayers = new PlayerHandler[MAX_PLAYERS]; // Couldn't bet this round
+    private long round; // Rounds started at this table, across restarts when journaled
+    private boolean shoeJournaled; // Whether the journal holds the shoe's current order
+    // Players dealt into the current round, by seat. Fixed for the round, so players who join
+    // mid-round sit it out and seats don't shift when someone leaves.
+    private final PlayerHandler[] roundSeats = new PlayerHandler[MAX_PLAYERS];
+    private int roundSeatCount;
+    private final AtomicInteger reservedSeats = new AtomicInteger();
+    // A ReentrantLock rather than synchronized so a virtual game thread never pins its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<PlayerHandler> players = new CopyOnWriteArrayList<>();
+    private final Deck deck; // Kept for the life of the table and reshuffled at the cut card
+    private final Hand dealerHand = new Hand();
+    private boolean gameInProgress;
+    private volatile boolean roundAborted; // Set when too few players remain mid-round
+    private volatile Runnable seatFreedListener = () -> { };
+    private SpectatorFeed spectatorFeed; // Set once before the table is used
+
+    // Outgoing updates are batched per event: broadcast events and state changes collect here,
+    // once per wire protocol, until flush() turns them into a frame every seated player gets in
+    // a single write. Only seats whose version is newer than the last flushed sequence are resent.
+    private static final int TEXT = 0;
+    private static final int BINARY = 1;
+    private final WireEncoder[] frames = {new TextEncoder(), new BinaryEncoder()};
+    private final long[] seatVersions = new long[MAX_PLAYERS];
+    private long dealerVersion;
+    private long sequence;
+    private long flushedSequence;
+    private long pendingActionNanos; // Arrival of the action whose result the next flush carries
+
+    public Table(int tableId, Deck deck, Executor gameExecutor, ScheduledExecutorService turnTimer, long turnTimeoutMillis,
+                 Journal journal, Ledger ledger, RoundStats stats, HandHistory history) {
+        this.tableId = tableId;
+        this.deck = deck;
+        this.gameExecutor = gameExecutor;
+        this.turnTimer = turnTimer;
+        this.turnTimeoutMillis = turnTimeoutMillis;
+        this.journal = journal;
+        this.ledger = ledger;
+        this.stats = stats;
+        this.history = history;
+        this.gameInProgress = false;
+    }
+
+    // Claims a seat without taking any lock, so a busy table never blocks the acceptor
+    public boolean tryReserveSeat() {
+        while (true) {
+            int seats = reservedSeats.get();
+            if (seats >= MAX_PLAYERS) {
+                return false;
+            }
+            if (reservedSeats.compareAndSet(seats, seats + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Gives back a seat claimed with tryReserveSeat that was never filled
+    public void cancelReservation() {
+        releaseSeat();
+    }
+
+    private void releaseSeat() {
+        reservedSeats.decrementAndGet();
+    }
+
+    public void seatPlayer(PlayerHandler player) {
+        lock.lock();
+        try {
+            players.add(player);
+            Metrics.seatedPlayers.increment();
+            Log.info("Table {}: player {} seated.", tableId, player.getPlayerId());
+
+            // Start the round on the game executor so the accept loop keeps running
+            if (players.size() == MAX_PLAYERS && !gameInProgress) {
+                Log.info("Table {}: all players connected. Starting game...", tableId);
+                gameInProgress = true;
+                roundAborted = false; // Set under this lock by removePlayer, so cleared under it too
+                Metrics.activeTables.increment();
+                gameExecutor.execute(this::runRounds);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Plays rounds back to back on one game-executor task for as long as the table stays full
+    private void runRounds() {
+        boolean restart;
+        do {
+            playRound();
+
+            // Check if there are still enough players to restart the game
+            lock.lock();
+            try {
+                restart = players.size() == MAX_PLAYERS;
+                gameInProgress = restart;
+                roundAborted = false; // Only a drop from here on can void the next round
+            } finally {
+                lock.unlock();
+            }
+            if (restart) {
+                Log.debug("Table {}: restarting game...", tableId);
+            }
+        } while (restart);
+        Metrics.activeTables.decrement();
+        Log.info("Table {}: waiting for more players...", tableId);
+    }
+
+    private void playRound() {
+        dealerHand.clear();
+        if (deck.needsShuffle()) {
+            deck.shuffle();
+            shoeJournaled = false;
+            Log.debug("Table {}: cut card reached. Shoe reshuffled.", tableId);
+        }
+        if (!shoeJournaled) {
+            journal.shuffle(tableId, deck);
+            shoeJournaled = true;
+        }
+        journal.roundStart(tableId, ++round, deck.getCursor());
+
+        Log.debug("Table {}: game started. Dealing cards...", tableId);
+
+        dealInitialPlayerCards();
+        dealInitialDealerCards();
+
+        broadcastGameState();
+
+        if (!checkForDealerBlackjack()) {
+            playTurns();
+        }
+
+        if (!roundAborted) {
+            playDealerTurn();
+
+            announceResults();
+            journal.roundEnd(Journal.ROUND_END, tableId, round);
+            Metrics.rounds.increment();
+        } else {
+            refundStakes();
+            journal.roundEnd(Journal.ROUND_VOID, tableId, round);
+        }
+
+        resetGameState();
+    }
+
+    // Seats everyone at the table for the round, in the order they sat down, and deals them in.
+    // A player with no chips left to bet is stood up instead, outside the lock as any leaver is.
+    void dealInitialPlayerCards() {
+        int broke = 0;
+        lock.lock();
+        try {
+            roundSeatCount = 0;
+            for (PlayerHandler player : players) {
+                if (!player.placeBet()) {
+                    brokePlayers[broke++] = player;
+                    continue;
+                }
+                roundSeats[roundSeatCount++] = player;
+                player.dealInitialCards();
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < broke; i++) {
+            brokePlayers[i].leaveTable();
+            brokePlayers[i] = null;
+        }
+    }
+
+    void dealInitialDealerCards() {
+        for (int i = 0; i < 2; i++) {
+            int card = deck.drawCard();
+            dealerHand.add(card);
+            journal.event(Journal.DEALER_CARD, tableId, 0, card);
+        }
+        int upcard = dealerHand.get(0);
+        broadcast(frame -> frame.dealerDealt(upcard));
+        markDealerChanged();
+    }
+
+    // Behind an ace or a ten-card the dealer looks at the hole card before anyone acts, after
+    // offering insurance behind an ace. Returns whether the dealer has blackjack, which ends the
+    // round with the hands as dealt.
+    private boolean checkForDealerBlackjack() {
+        int upcard = dealerHand.get(0);
+        if (!Rules.dealerPeeks(upcard)) {
+            return false;
+        }
+        if (Card.isAce(upcard)) {
+            for (int i = 0; i < roundSeatCount && !roundAborted; i++) {
+                PlayerHandler player = roundSeats[i];
+                if (player.hasHandsToPlay()) {
+                    int seat = i;
+                    broadcast(frame -> frame.turn(seat));
+                    player.offerInsurance();
+                    broadcastGameState();
+                }
+            }
+        }
+        boolean blackjack = dealerHand.isBlackjack();
+        broadcast(frame -> frame.info(blackjack ? "The dealer has blackjack." : "The dealer checked for blackjack and has none."));
+        broadcastGameState();
+        return blackjack;
+    }
+
+    private void playTurns() {
+        for (int i = 0; i < roundSeatCount; i++) {
+            PlayerHandler player = roundSeats[i];
+            if (roundAborted) {
+                return;
+            }
+            if (player.hasHandsToPlay()) {
+                int seat = i;
+                broadcast(frame -> frame.turn(seat));
+                try {
+                    player.takeTurn();
+                } catch (Exception e) {
+                    Log.warn("Table {}: error with player {}: {}", tableId, i + 1, e.getMessage());
+                    player.sendInfo("Disconnected. You are standing by default.");
+                    player.standRemainingHands();
+                }
+                broadcastGameState();
+            }
+        }
+    }
+
+    private void playDealerTurn() {
+        broadcast(WireEncoder::dealerTurn);
+        while (Rules.dealerHits(dealerHand)) {
+            int card = deck.drawCard();
+            dealerHand.add(card);
+            journal.event(Journal.DEALER_CARD, tableId, 0, card);
+            broadcast(frame -> frame.dealerDrew(card));
+        }
+        broadcast(frame -> frame.dealerFinal(dealerHand));
+    }
+
+    // Settles every stake in one ledger batch, then tells each player how each hand did and
+    // what the round paid them. The round's totals go to the windowed stats.
+    private void announceResults() {
+        long wagered = 0;
+        long paidOut = 0;
+        lock.lock();
+        try {
+            for (int i = 0; i < roundSeatCount; i++) {
+                PlayerHandler player = roundSeats[i]; // One who left mid-round stood; the message goes nowhere
+                Hand[] hands = player.getHands();
+                long paid = Rules.insurancePayout(player.getInsurance(), dealerHand.isBlackjack());
+                for (int h = 0; h < player.getHandCount(); h++) {
+                    Outcome outcome = Rules.outcome(hands[h], player.getHandCount(), dealerHand);
+                    journal.event(Journal.RESULT, tableId, i, outcome.ordinal());
+                    roundOutcomes[i * Rules.MAX_HANDS + h] = outcome;
+                    roundTally[outcome.ordinal()]++;
+                    paid += Rules.payout(outcome, player.getStake(h));
+                }
+                roundPayouts[i] = paid;
+                wagered += player.getTotalStake();
+                paidOut += paid;
+                settlements.add(player.getAccount(), player.getTotalStake(), paid);
+            }
+            ledger.settle(settlements);
+            for (int i = 0; i < roundSeatCount; i++) {
+                PlayerHandler player = roundSeats[i];
+                int count = player.getHandCount();
+                WireEncoder message = player.beginMessage();
+                for (int h = 0; h < count; h++) {
+                    message.result(h, count, roundOutcomes[i * Rules.MAX_HANDS + h]);
+                }
+                if (player.getInsurance() > 0) {
+                    message.info(dealerHand.isBlackjack() ? "Dealer has blackjack. Insurance pays." : "Dealer has no blackjack. Insurance lost.");
+                }
+                message.payout(roundPayouts[i], player.getAccount().getBalance());
+                player.endMessage();
+            }
+        } finally {
+            lock.unlock();
+        }
+        stats.record(tableId, dealerHand.get(0), dealerHand.isBusted(), roundTally, wagered, paidOut);
+        Arrays.fill(roundTally, 0);
+        if (history.isEnabled()) {
+            archiveRound();
+        }
+    }
+
+    // Packs the settled round for the hand history. Only this thread changes the round's hands
+    // and stakes, and not before the next deal.
+    private void archiveRound() {
+        historyRow.begin(System.currentTimeMillis(), tableId, round, dealerHand);
+        for (int i = 0; i < roundSeatCount; i++) {
+            PlayerHandler player = roundSeats[i];
+            historyRow.insurance(player.getInsurance());
+            Hand[] hands = player.getHands();
+            for (int h = 0; h < player.getHandCount(); h++) {
+                historyRow.hand(i, hands[h], roundOutcomes[i * Rules.MAX_HANDS + h], player.getStake(h));
+            }
+        }
+        history.record(historyRow);
+    }
+
+    // A voided round gives every stake back
+    private void refundStakes() {
+        for (int i = 0; i < roundSeatCount; i++) {
+            long stake = roundSeats[i].getTotalStake();
+            settlements.add(roundSeats[i].getAccount(), stake, stake);
+        }
+        ledger.settle(settlements);
+    }
+
+    // Sends everything that changed since the last flush
+    void broadcastGameState() {
+        flush();
+    }
+
+    // Journals a DEAL, HIT or STAND by the given player, under their seat for the round
+    void record(int type, PlayerHandler player, int card) {
+        if (!journal.isEnabled()) {
+            return;
+        }
+        int seat = seatOf(player);
+        if (seat >= 0) {
+            journal.event(type, tableId, seat, card);
+        }
+    }
+
+    // The player's seat in the current round, the number every message about their hands and
+    // turns carries; -1 between rounds or for a player who joined after the deal
+    private int seatOf(PlayerHandler player) {
+        for (int i = 0; i < roundSeatCount; i++) {
+            if (roundSeats[i] == player) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Called once at startup, before anyone is seated
+    void restore(JournalRecovery.TableState state) {
+        if (state.shoeSize == deck.size()) {
+            deck.restore(state.shoeSeed, state.cursor);
+            shoeJournaled = true;
+        }
+        round = state.getRound();
+        if (state.isInFlight()) {
+            // Its players' connections died with the old process, so the round can't go on
+            Log.warn("Table {}: round {} was in progress when the server stopped ({}); voided", tableId, round, state.describeRound());
+            journal.roundEnd(Journal.ROUND_VOID, tableId, round);
+        }
+    }
+
+    // Held by the game thread while a player's hands and stakes change, as the snapshots other
+    // threads encode read them under the same lock
+    void lockState() {
+        lock.lock();
+    }
+
+    void unlockState() {
+        lock.unlock();
+    }
+
+    public void markHandChanged(PlayerHandler player) {
+        lock.lock();
+        try {
+            int seat = seatOf(player);
+            if (seat >= 0) {
+                seatVersions[seat] = ++sequence;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void markDealerChanged() {
+        lock.lock();
+        try {
+            dealerVersion = ++sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Marks every seat and the dealer as changed, so the next flush resends them all
+    void markAllChanged() {
+        lock.lock();
+        try {
+            dealerVersion = ++sequence;
+            Arrays.fill(seatVersions, sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flush() {
+        lock.lock();
+        try {
+            if (sequence == flushedSequence) {
+                return;
+            }
+            for (WireEncoder frame : frames) {
+                if (dealerVersion > flushedSequence && dealerHand.size() > 0) {
+                    frame.dealerUpcard(dealerHand.get(0));
+                }
+                for (int i = 0; i < roundSeatCount; i++) {
+                    if (seatVersions[i] > flushedSequence) {
+                        PlayerHandler player = roundSeats[i];
+                        frame.seatHands(i, player.getHands(), player.getHandCount());
+                    }
+                }
+                frame.sequence(sequence);
+            }
+
+            // Encoded once per protocol; every recipient is handed the same bytes
+            byte[] text = frames[TEXT].drain();
+            byte[] binary = frames[BINARY].drain();
+            flushedSequence = sequence;
+            for (PlayerHandler player : players) {
+                player.writeFrame(text, binary);
+            }
+            if (spectatorFeed != null) {
+                spectatorFeed.publish(text, binary);
+            }
+            if (pendingActionNanos != 0) {
+                Metrics.actionToBroadcastNanos.record(System.nanoTime() - pendingActionNanos);
+                pendingActionNanos = 0;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called by the player whose turn it is as it starts applying an action
+    void actionReceived(long receivedNanos) {
+        lock.lock();
+        try {
+            pendingActionNanos = receivedNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called before a message to one player so it can't overtake earlier broadcast lines
+    void flushPendingLines() {
+        lock.lock();
+        try {
+            if (!frames[TEXT].isEmpty()) {
+                flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void handlePlayerDisconnection(PlayerHandler player) {
+        if (removePlayer(player)) {
+            seatFreedListener.run(); // Outside the lock: admission may seat someone at another table
+        }
+    }
+
+    private boolean removePlayer(PlayerHandler player) {
+        lock.lock();
+        try {
+            if (!players.remove(player)) {
+                return false;
+            }
+            releaseSeat();
+            Metrics.seatedPlayers.decrement();
+            Log.info("Table {}: player {} removed from the game.", tableId, player.getPlayerId());
+
+            // Check if the game should end due to insufficient players
+            if (players.size() < 2) {
+                Log.info("Table {}: not enough players to continue. Ending game.", tableId);
+                broadcast(frame -> frame.info("Game ended due to insufficient players. Waiting for new players..."));
+                flush();
+                if (gameInProgress) {
+                    roundAborted = true; // The round's own thread stops and resets the table
+                } else {
+                    resetGameState();
+                }
+            } else {
+                // Broadcast updated game state to remaining players
+                // Seats keep their numbers for the round; the one that left stands where it is
+                String message = "Player " + player.getPlayerId() + " has disconnected.";
+                broadcast(frame -> frame.info(message));
+                broadcastGameState();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Sends a full snapshot as one write, tagged with the sequence number the deltas that
+    // follow build on
+    public void syncPlayerState(PlayerHandler player) {
+        lock.lock();
+        try {
+            if (dealerHand.size() == 0) {
+                player.sendInfo("Game not started yet. Please wait.");
+                return;
+            }
+            encodeSnapshot(player.beginMessage());
+            player.endMessage();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // The same snapshot for a spectator. Returns the feed position it is current to: the feed
+    // is only published to under this lock, so nothing is missed or sent twice.
+    long spectatorSnapshot(WireEncoder snapshot) {
+        lock.lock();
+        try {
+            if (dealerHand.size() == 0) {
+                snapshot.info("Game not started yet. Please wait.");
+            } else {
+                encodeSnapshot(snapshot);
+            }
+            return spectatorFeed.getHead();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void encodeSnapshot(WireEncoder snapshot) {
+        snapshot.dealerUpcard(dealerHand.get(0));
+        for (int i = 0; i < roundSeatCount; i++) {
+            PlayerHandler seated = roundSeats[i];
+            snapshot.seatHands(i, seated.getHands(), seated.getHandCount());
+        }
+        snapshot.sequence(flushedSequence);
+    }
+
+    // Adds an event for every player, in every protocol, to the next flush
+    public void broadcast(Consumer<WireEncoder> event) {
+        lock.lock();
+        try {
+            for (WireEncoder frame : frames) {
+                event.accept(frame);
+            }
+            sequence++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void resetGameState() {
+        lock.lock();
+        try {
+            for (PlayerHandler player : players) {
+                player.reset();
+            }
+            Arrays.fill(roundSeats, null); // Under the lock, as flush() reads the seats
+            roundSeatCount = 0;
+        } finally {
+            lock.unlock();
+        }
+        dealerHand.clear();
+        Log.debug("Table {}: game state reset. Waiting for players...", tableId);
+    }
+
+    public void setSeatFreedListener(Runnable listener) {
+        seatFreedListener = listener;
+    }
+
+    public void setSpectatorFeed(SpectatorFeed feed) {
+        spectatorFeed = feed;
+    }
+
+    public SpectatorFeed getSpectatorFeed() {
+        return spectatorFeed;
+    }
+
+    public ScheduledExecutorService getTurnTimer() {
+        return turnTimer;
+    }
+
+    public long getTurnTimeoutMillis() {
+        return turnTimeoutMillis;
+    }
+
+    // The dealer's face-up card; only meaningful once the round's cards are dealt
+    public int getDealerUpcard() {
+        return dealerHand.get(0);
+    }
+
+    public Ledger getLedger() {
+        return ledger;
+    }
+
+    public Deck getDeck() {
+        return deck;
+    }
+
+    public int getTableId() {
+        return tableId;
+    }
+
+    public int getSeatedCount() {
+        return reservedSeats.get();
+    }
+}
@@ -0,0 +1,83 @@
+package application.blackjackxgui;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TableManager {
+    private final Table[] tables;
+    private final AtomicInteger fillHint = new AtomicInteger(); // Table currently being filled
+
+    public TableManager(ServerConfig config, Executor gameExecutor, ScheduledExecutorService turnTimer, Journal journal,
+                        Ledger ledger, RoundStats stats, HandHistory history, Executor spectatorExecutor) {
+        if (config.tables < 1) {
+            throw new IllegalArgumentException("At least one table is required");
+        }
+        // With a configured seed every table's shoe gets its own reproducible stream
+        SplittableRandom seeds = config.seed != null ? new SplittableRandom(config.seed) : new SplittableRandom();
+        tables = new Table[config.tables];
+        for (int i = 0; i < tables.length; i++) {
+            Deck deck = new Deck(config.decks, config.penetration, seeds.split());
+            tables[i] = new Table(i + 1, deck, gameExecutor, turnTimer, config.turnTimeoutMillis, journal, ledger, stats, history);
+            tables[i].setSpectatorFeed(new SpectatorFeed(tables[i], config.spectatorBuffer, config.spectatorPolicy, spectatorExecutor));
+        }
+    }
+
+    // Reserves a seat at the first table with room, starting from the one being filled.
+    // Returns null when every table is full.
+    public Table assignSeat() {
+        int start = fillHint.get();
+        for (int i = 0; i < tables.length; i++) {
+            int index = (start + i) % tables.length;
+            Table table = tables[index];
+            if (table.tryReserveSeat()) {
+                if (index != start) {
+                    fillHint.compareAndSet(start, index);
+                }
+                return table;
+            }
+        }
+        return null;
+    }
+
+    // Puts each table's recovered shoe and round count back before any player is seated
+    public void restore(Map<Integer, JournalRecovery.TableState> recovered) {
+        for (Map.Entry<Integer, JournalRecovery.TableState> entry : recovered.entrySet()) {
+            int index = entry.getKey() - 1;
+            if (index >= 0 && index < tables.length) {
+                tables[index].restore(entry.getValue());
+            }
+        }
+    }
+
+    // Called, outside any table lock, each time a player leaves a table
+    public void setSeatFreedListener(Runnable listener) {
+        for (Table table : tables) {
+            table.setSeatFreedListener(listener);
+        }
+    }
+
+    // Unreserved seats across every table
+    public int getFreeSeats() {
+        int free = 0;
+        for (Table table : tables) {
+            free += Table.MAX_PLAYERS - table.getSeatedCount();
+        }
+        return free;
+    }
+
+    public int getTableCount() {
+        return tables.length;
+    }
+
+    public Table getTable(int index) {
+        return tables[index];
+    }
+
+    // By the 1-based id players and spectators see, or null if there is no such table
+    public Table findTable(int tableId) {
+        return tableId >= 1 && tableId <= tables.length ? tables[tableId - 1] : null;
+    }
+}
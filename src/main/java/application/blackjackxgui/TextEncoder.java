@@ -0,0 +1,142 @@
+package application.blackjackxgui;
+
+import java.nio.charset.StandardCharsets;
+
+// The original line protocol: STATE|, INFO| and RESULT| lines plus a few bare prompts
+public class TextEncoder extends WireEncoder {
+    private final StringBuilder lines = new StringBuilder();
+
+    @Override
+    public void welcome(String text) {
+        lines.append(text).append('\n');
+    }
+
+    @Override
+    public void info(String text) {
+        lines.append("INFO|").append(text).append('\n');
+    }
+
+    @Override
+    public void session(String token) {
+        lines.append("SESSION|").append(token).append('\n');
+    }
+
+    @Override
+    public void dealerDealt(int upcard) {
+        lines.append("STATE|Dealer's visible card: ").append(Card.name(upcard)).append('\n');
+    }
+
+    @Override
+    public void dealerUpcard(int upcard) {
+        lines.append("STATE|Dealer's Hand: ").append(Card.name(upcard)).append(" (visible card)\n");
+    }
+
+    @Override
+    public void dealerTurn() {
+        lines.append("INFO|Dealer's turn...\n");
+    }
+
+    @Override
+    public void dealerDrew(int card) {
+        lines.append("STATE|Dealer drew: ").append(Card.name(card)).append('\n');
+    }
+
+    @Override
+    public void dealerFinal(Hand hand) {
+        lines.append("STATE|Dealer's final hand: ").append(hand).append(" (Value: ").append(hand.getValue()).append(")\n");
+    }
+
+    @Override
+    public void seatHands(int seat, Hand[] hands, int count) {
+        lines.append("STATE|Player ").append(seat + 1).append("'s Hand: ");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                lines.append(" | "); // Split hands
+            }
+            lines.append(hands[i].join());
+        }
+        lines.append('\n');
+    }
+
+    @Override
+    public void turn(int seat) {
+        lines.append("INFO|Player ").append(seat + 1).append("'s turn.\n");
+    }
+
+    @Override
+    public void sequence(long sequence) {
+        lines.append("STATE|Sequence: ").append(sequence).append('\n');
+    }
+
+    @Override
+    public void initialHand(Hand hand) {
+        lines.append("Your initial hand: ").append(hand).append('\n');
+    }
+
+    @Override
+    public void yourTurn() {
+        lines.append("Your turn\n");
+    }
+
+    @Override
+    public void drew(int card, Hand hand) {
+        lines.append("You drew: ").append(Card.name(card)).append(". Current hand: ").append(hand).append('\n');
+    }
+
+    @Override
+    public void busted() {
+        lines.append("You are busted!\n");
+    }
+
+    @Override
+    public void stood() {
+        lines.append("You chose to stand.\n");
+    }
+
+    @Override
+    public void waitForAction() {
+        lines.append("Wait for your next action.\n");
+    }
+
+    @Override
+    public void hint(int action, float expectedReturn) {
+        lines.append("HINT|").append(StrategyTable.name(action))
+                .append(String.format(" (expected return %+.1f%% of your bet)", expectedReturn * 100)).append('\n');
+    }
+
+    @Override
+    public void playingHand(int hand, int count, Hand cards) {
+        lines.append("Playing hand ").append(hand + 1).append(" of ").append(count).append(": ").append(cards).append('\n');
+    }
+
+    @Override
+    public void result(int hand, int count, Outcome outcome) {
+        lines.append("RESULT|");
+        if (count > 1) {
+            lines.append("Hand ").append(hand + 1).append(": ");
+        }
+        lines.append(outcome.getMessage()).append('\n');
+    }
+
+    @Override
+    public void wager(long stake, long balance) {
+        lines.append("BANKROLL|Bet: ").append(stake).append(" chips. Bankroll: ").append(balance).append('\n');
+    }
+
+    @Override
+    public void payout(long payout, long balance) {
+        lines.append("BANKROLL|Paid: ").append(payout).append(" chips. Bankroll: ").append(balance).append('\n');
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return lines.length() == 0;
+    }
+
+    @Override
+    public byte[] drain() {
+        byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+        lines.setLength(0);
+        return bytes;
+    }
+}
@@ -0,0 +1,84 @@
+package application.blackjackxgui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+// Load tool for the blocking transport's thread modes. Starts an in-process server in
+// platform and then virtual mode, opens idle player connections until the target count
+// or the first failure, and reports how many were sustained and the platform threads used.
+// Every full table starts a round that parks on its first player's action, as an AFK table would.
+//
+// Usage: java application.blackjackxgui.ThreadModeLoadTool [connections]
+public class ThreadModeLoadTool {
+
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        List<String> report = new ArrayList<>();
+        for (String threads : new String[] {"platform", "virtual"}) {
+            report.add(run(threads, connections));
+        }
+        System.out.println();
+        System.out.println("mode      target  connected  seconds  platform threads");
+        for (String line : report) {
+            System.out.println(line);
+        }
+    }
+
+    private static String run(String threads, int connections) throws Exception {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        long baselineThreads = threadBean.getTotalStartedThreadCount();
+
+        ServerConfig config = new ServerConfig();
+        config.port = 0;
+        config.transport = "blocking";
+        config.threads = threads;
+        config.tables = (connections + Table.MAX_PLAYERS - 1) / Table.MAX_PLAYERS;
+        config.turnTimeoutMillis = 0; // Keep every round parked for the whole run
+        config.handshakeMillis = 0; // Seat each connection at once; the tool never sends RESUME or SPECTATE
+        BlackjackServer server = new BlackjackServer(config);
+        Thread acceptor = new Thread(server::run, "load-tool-acceptor");
+        acceptor.start();
+
+        List<Socket> sockets = new ArrayList<>(connections);
+        int connected = 0;
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < connections; i++) {
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                sockets.add(socket);
+                socket.setSoTimeout(10_000);
+                if (readLine(socket.getInputStream()).startsWith("Welcome")) {
+                    connected++;
+                }
+            }
+        } catch (IOException | OutOfMemoryError e) {
+            System.err.println(threads + " mode stopped after " + connected + " connections: " + e);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Thread.sleep(1000); // Let every full table start its round
+        long platformThreads = threadBean.getTotalStartedThreadCount() - baselineThreads;
+
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        server.stop();
+        acceptor.join();
+        return String.format("%-9s %6d  %9d  %7.2f  %16d", threads, connections, connected, seconds, platformThreads);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            line.append((char) b);
+        }
+        return line.toString();
+    }
+}
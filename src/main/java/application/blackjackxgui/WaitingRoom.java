@@ -0,0 +1,185 @@
+package application.blackjackxgui;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded FIFO of connections waiting for a seat. When it is full the shed policy decides
+// who is turned away: the newcomer ("reject-newest") or whoever has waited longest
+// ("drop-oldest"). Waiting clients are told their position when they join and again,
+// by announcePositions(), whenever it has changed.
+public class WaitingRoom {
+    public static final String REJECT_NEWEST = "reject-newest";
+    public static final String DROP_OLDEST = "drop-oldest";
+
+    private final int capacity;
+    private final boolean dropOldest;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+
+    public WaitingRoom(int capacity, String shedPolicy) {
+        this.capacity = capacity;
+        this.dropOldest = DROP_OLDEST.equalsIgnoreCase(shedPolicy);
+    }
+
+    // Queues a connection, or sheds one if the room is full. Returns the connection's place in
+    // the queue, or null if it was the newcomer that was turned away. resumedToken is kept for
+    // the player's seat, as for PlayerHandler.
+    public Waiter enqueue(Connection connection, String resumedToken) {
+        Waiter waiter = new Waiter(connection, resumedToken);
+        Waiter shed = null;
+        lock.lock();
+        try {
+            if (queue.size() >= capacity) {
+                if (!dropOldest || capacity == 0) {
+                    return null;
+                }
+                shed = queue.poll();
+                Metrics.waitingClients.decrement();
+            }
+            connection.setListener(waiter);
+            queue.add(waiter);
+            Metrics.waitingClients.increment();
+            waiter.announcedPosition = queue.size();
+            // Sent under the lock so it can't arrive after the client is admitted
+            connection.send("INFO|All tables are full. You are number " + queue.size() + " in the queue.");
+        } finally {
+            lock.unlock();
+        }
+        if (shed != null) {
+            Metrics.rejections.increment();
+            shed.connection.send("INFO|The waiting room is full. Please try again later.");
+            shed.connection.close();
+        }
+        return waiter;
+    }
+
+    // Takes the longest-waiting client, or null if nobody is waiting
+    public Waiter poll() {
+        lock.lock();
+        try {
+            Waiter waiter = queue.poll();
+            if (waiter != null) {
+                Metrics.waitingClients.decrement();
+            }
+            return waiter;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return queue.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(Waiter waiter) {
+        lock.lock();
+        try {
+            if (queue.remove(waiter)) {
+                Metrics.waitingClients.decrement();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Tells every client whose place in the queue moved since it was last told. Runs on a
+    // timer rather than on every change, so a burst of admissions costs one pass.
+    public void announcePositions() {
+        lock.lock();
+        try {
+            int position = 1;
+            for (Iterator<Waiter> it = queue.iterator(); it.hasNext(); position++) {
+                Waiter waiter = it.next();
+                if (waiter.announcedPosition != position) {
+                    waiter.announcedPosition = position;
+                    waiter.connection.send("INFO|You are number " + position + " in the queue.");
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Listens to a queued connection until it is handed to a PlayerHandler. A protocol
+    // request sent while waiting is kept and replayed once the player is seated.
+    public class Waiter implements ConnectionListener {
+        private final Connection connection;
+        private final String resumedToken;
+        private int announcedPosition;
+        private ConnectionListener next;
+        private String protocolRequest;
+        private boolean closed;
+
+        private Waiter(Connection connection, String resumedToken) {
+            this.connection = connection;
+            this.resumedToken = resumedToken;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        public String getResumedToken() {
+            return resumedToken;
+        }
+
+        // Routes the connection's events to the player from now on. Returns false if the
+        // client has already gone. Events already on their way here are forwarded.
+        public synchronized boolean handOff(ConnectionListener player) {
+            if (closed) {
+                return false;
+            }
+            next = player;
+            connection.setListener(player);
+            return true;
+        }
+
+        public synchronized String getProtocolRequest() {
+            return protocolRequest;
+        }
+
+        @Override
+        public void onLine(String line) {
+            ConnectionListener current;
+            synchronized (this) {
+                current = next;
+                if (current == null) {
+                    if (line.regionMatches(true, 0, BinaryProtocol.REQUEST, 0, BinaryProtocol.REQUEST.length())) {
+                        protocolRequest = line;
+                    }
+                    return; // Anything else is an action, and a waiting client has no turn
+                }
+            }
+            current.onLine(line);
+        }
+
+        @Override
+        public void onClose() {
+            ConnectionListener current;
+            synchronized (this) {
+                closed = true;
+                current = next;
+            }
+            if (current != null) {
+                current.onClose();
+            } else {
+                remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package application.blackjackxgui;
+
+// Builds outgoing messages in one wire protocol. Messages accumulate until drain(),
+// so several of them can go out as a single write.
+public abstract class WireEncoder {
+    public abstract void welcome(String text);
+
+    public abstract void info(String text);
+
+    // The token a client sends in "RESUME <token>" to get its seat back after a dropped connection
+    public abstract void session(String token);
+
+    public abstract void dealerDealt(int upcard);
+
+    public abstract void dealerUpcard(int upcard);
+
+    public abstract void dealerTurn();
+
+    public abstract void dealerDrew(int card);
+
+    public abstract void dealerFinal(Hand hand);
+
+    // A seat's hands, first to last; count is 0 before the seat is dealt in
+    public abstract void seatHands(int seat, Hand[] hands, int count);
+
+    public abstract void turn(int seat);
+
+    public abstract void sequence(long sequence);
+
+    public abstract void initialHand(Hand hand);
+
+    public abstract void yourTurn();
+
+    public abstract void drew(int card, Hand hand);
+
+    public abstract void busted();
+
+    public abstract void stood();
+
+    public abstract void waitForAction();
+
+    // A StrategyTable action (STAND, HIT, DOUBLE or SPLIT), and the expected return of playing it
+    public abstract void hint(int action, float expectedReturn);
+
+    // The hand the player acts on next, after a split
+    public abstract void playingHand(int hand, int count, Hand cards);
+
+    public abstract void result(int hand, int count, Outcome outcome);
+
+    // Chips staked on the round so far (more after a double, split or insurance), and the bankroll left
+    public abstract void wager(long stake, long balance);
+
+    // Chips returned to the bankroll by the round's result (0 for a loss), and the new balance
+    public abstract void payout(long payout, long balance);
+
+    public abstract boolean isEmpty();
+
+    // Returns everything encoded since the last drain and starts over
+    public abstract byte[] drain();
+}
@@ -1,8 +1,6 @@
 module application.blackjackxgui {
-    requires javafx.controls;
-    requires javafx.fxml;
+    requires java.management;
+    requires jdk.httpserver;
 
-
-    opens application.blackjackxgui to javafx.fxml;
     exports application.blackjackxgui;
 }
\ No newline at end of file
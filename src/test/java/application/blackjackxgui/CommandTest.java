@@ -0,0 +1,57 @@
+package application.blackjackxgui;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandTest {
+
+    private static Command decode(String line) {
+        byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        return Command.decode(bytes, 0, bytes.length);
+    }
+
+    @Test
+    void decodesEveryActionIgnoringCase() {
+        assertEquals(Command.HIT, decode("HIT"));
+        assertEquals(Command.HIT, decode("hit"));
+        assertEquals(Command.STAND, decode("Stand"));
+        assertEquals(Command.DOUBLE, decode("double"));
+        assertEquals(Command.SPLIT, decode("SPLIT"));
+        assertEquals(Command.INSURANCE, decode("insurance"));
+        assertEquals(Command.HINT, decode("HINT"));
+        assertEquals(Command.DISCONNECT, decode("disconnect"));
+    }
+
+    @Test
+    void plainActionsMustMatchTheWholeLine() {
+        assertEquals(Command.UNKNOWN, decode("HITS"));
+        assertEquals(Command.UNKNOWN, decode("HI"));
+        assertEquals(Command.UNKNOWN, decode(""));
+        assertEquals(Command.UNKNOWN, decode("TIMEOUT"));
+    }
+
+    @Test
+    void decodesFromAnOffsetIntoALargerBuffer() {
+        byte[] buffer = "xxSTANDyy".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Command.STAND, Command.decode(buffer, 2, 5));
+        assertEquals(Command.UNKNOWN, Command.decode(buffer, 2, 6));
+    }
+
+    @Test
+    void betAndProtocolCarryTheRestOfTheLine() {
+        byte[] bet = "bet  250 ".getBytes(StandardCharsets.US_ASCII);
+        Command command = Command.decode(bet, 0, bet.length);
+        assertEquals(Command.BET, command);
+        assertTrue(command.takesArgument());
+        assertEquals("250", command.argument(bet, 0, bet.length));
+
+        byte[] protocol = (BinaryProtocol.REQUEST + "bin1").getBytes(StandardCharsets.US_ASCII);
+        command = Command.decode(protocol, 0, protocol.length);
+        assertEquals(Command.PROTOCOL, command);
+        assertEquals("bin1", command.argument(protocol, 0, protocol.length));
+        assertFalse(Command.HIT.takesArgument());
+    }
+}
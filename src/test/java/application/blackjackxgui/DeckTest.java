@@ -0,0 +1,98 @@
+package application.blackjackxgui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeckTest {
+
+    private static int[] draw(Deck deck, int count) {
+        int[] cards = new int[count];
+        for (int i = 0; i < count; i++) {
+            cards[i] = deck.drawCard();
+        }
+        return cards;
+    }
+
+    @Test
+    void aShuffleHoldsEveryCardOncePerDeck() {
+        Deck deck = new Deck(6, 0.75, new SplittableRandom(1));
+        int[] counts = new int[Card.CARDS_PER_DECK];
+        for (int card : draw(deck, deck.size())) {
+            counts[card]++;
+        }
+        for (int count : counts) {
+            assertEquals(6, count);
+        }
+        assertEquals(0, deck.remaining());
+    }
+
+    @Test
+    void theSameSeedDealsTheSameCards() {
+        Deck first = new Deck(6, 0.75, new SplittableRandom(7));
+        Deck second = new Deck(6, 0.75, new SplittableRandom(7));
+        assertArrayEquals(draw(first, 100), draw(second, 100));
+
+        first.shuffle(42);
+        second.shuffle(42);
+        assertEquals(42, first.getSeed());
+        assertArrayEquals(draw(first, 100), draw(second, 100));
+    }
+
+    @Test
+    void differentSeedsDealDifferentCards() {
+        Deck deck = new Deck(6, 0.75, new SplittableRandom(7));
+        deck.shuffle(1);
+        int[] first = draw(deck, 20);
+        deck.shuffle(2);
+        assertFalse(Arrays.equals(first, draw(deck, 20)));
+    }
+
+    @Test
+    void needsShuffleOnceTheCutCardComesOut() {
+        Deck deck = new Deck(1, 0.5, new SplittableRandom(3));
+        draw(deck, 25);
+        assertFalse(deck.needsShuffle());
+        deck.drawCard();
+        assertTrue(deck.needsShuffle());
+
+        deck.shuffle();
+        assertEquals(0, deck.getCursor());
+        assertFalse(deck.needsShuffle());
+    }
+
+    @Test
+    void restorePicksUpWhereTheRecordedShoeLeftOff() {
+        Deck live = new Deck(6, 0.75, new SplittableRandom(11));
+        long seed = live.getSeed();
+        draw(live, 123);
+        int[] next = draw(live, 50);
+
+        Deck restored = new Deck(6, 0.75, new SplittableRandom(99));
+        restored.restore(seed, 123);
+        assertEquals(123, restored.getCursor());
+        assertArrayEquals(next, draw(restored, 50));
+    }
+
+    @Test
+    void restoreFollowsAShoeThatRanOutMidRound() {
+        Deck live = new Deck(1, 1.0, new SplittableRandom(5));
+        long seed = live.getSeed();
+        draw(live, Card.CARDS_PER_DECK + 10); // Past the end, so the shoe reshuffled from its own seed
+        int[] next = draw(live, 20);
+
+        Deck restored = new Deck(1, 1.0, new SplittableRandom(6));
+        restored.restore(seed, Card.CARDS_PER_DECK + 10);
+        assertArrayEquals(next, draw(restored, 20));
+    }
+
+    @Test
+    void rejectsAnImpossibleShoe() {
+        assertThrows(IllegalArgumentException.class, () -> new Deck(0, 0.75, new SplittableRandom()));
+        assertThrows(IllegalArgumentException.class, () -> new Deck(6, 0, new SplittableRandom()));
+        assertThrows(IllegalArgumentException.class, () -> new Deck(6, 1.5, new SplittableRandom()));
+    }
+}
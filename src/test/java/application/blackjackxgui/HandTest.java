@@ -0,0 +1,130 @@
+package application.blackjackxgui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandTest {
+    private static final int HEARTS = 0;
+
+    private static int card(String rank) {
+        int index = switch (rank) {
+            case "J" -> 9;
+            case "Q" -> 10;
+            case "K" -> 11;
+            case "A" -> Card.ACE;
+            default -> Integer.parseInt(rank) - 2;
+        };
+        return Card.of(index, HEARTS);
+    }
+
+    private static Hand hand(String... ranks) {
+        Hand hand = new Hand();
+        for (String rank : ranks) {
+            hand.add(card(rank));
+        }
+        return hand;
+    }
+
+    @Test
+    void cardValuesCountFacesAsTenAndAcesAsOne() {
+        assertEquals(2, Card.value(card("2")));
+        assertEquals(10, Card.value(card("10")));
+        assertEquals(10, Card.value(card("J")));
+        assertEquals(10, Card.value(card("K")));
+        assertEquals(1, Card.value(card("A")));
+        assertTrue(Card.isAce(card("A")));
+        assertFalse(Card.isAce(card("K")));
+    }
+
+    @Test
+    void cardOrdinalsRoundTripRankAndSuit() {
+        for (int suit = 0; suit < Card.SUITS; suit++) {
+            for (int rank = 0; rank < Card.RANKS; rank++) {
+                int card = Card.of(rank, suit);
+                assertEquals(rank, Card.rank(card));
+                assertEquals(suit, Card.suit(card));
+            }
+        }
+        assertEquals("Ace of Spades", Card.name(Card.of(Card.ACE, 3)));
+        assertEquals("10 of Hearts", Card.name(card("10")));
+    }
+
+    @Test
+    void oneAceCountsElevenWhileItFits() {
+        Hand hand = hand("A", "6");
+        assertEquals(17, hand.getValue());
+        assertTrue(hand.isSoft());
+
+        hand.add(card("9"));
+        assertEquals(16, hand.getValue());
+        assertFalse(hand.isSoft());
+        assertFalse(hand.isBusted());
+    }
+
+    @Test
+    void severalAcesCountElevenAtMostOnce() {
+        Hand hand = hand("A", "A");
+        assertEquals(12, hand.getValue());
+        assertTrue(hand.isSoft());
+
+        hand.add(card("A"));
+        hand.add(card("8"));
+        assertEquals(21, hand.getValue());
+        assertFalse(hand.isBlackjack());
+    }
+
+    @Test
+    void blackjackIsTwoCardsMakingTwentyOne() {
+        assertTrue(hand("A", "K").isBlackjack());
+        assertTrue(hand("10", "A").isBlackjack());
+        assertFalse(hand("7", "7", "7").isBlackjack());
+        assertFalse(hand("A", "9").isBlackjack());
+    }
+
+    @Test
+    void bustsOnlyPastTwentyOne() {
+        assertFalse(hand("K", "Q", "A").isBusted());
+        assertTrue(hand("K", "Q", "2").isBusted());
+        assertEquals(22, hand("K", "Q", "2").getValue());
+    }
+
+    @Test
+    void removeLastUndoesAdd() {
+        Hand hand = hand("8", "8");
+        assertEquals(card("8"), hand.removeLast());
+        assertEquals(1, hand.size());
+        assertEquals(8, hand.getValue());
+
+        hand = hand("A", "A");
+        hand.removeLast();
+        assertEquals(11, hand.getValue());
+        assertTrue(hand.isSoft());
+    }
+
+    @Test
+    void clearEmptiesTheHand() {
+        Hand hand = hand("A", "K");
+        hand.clear();
+        assertEquals(0, hand.size());
+        assertEquals(0, hand.getValue());
+        assertFalse(hand.isSoft());
+    }
+
+    @Test
+    void growsPastItsInitialCapacity() {
+        Hand hand = new Hand();
+        for (int i = 0; i < 20; i++) {
+            hand.add(card("A"));
+        }
+        assertEquals(20, hand.size());
+        assertEquals(20, hand.getValue());
+        assertFalse(hand.isSoft());
+    }
+
+    @Test
+    void joinsCardNamesAsSentOnTheWire() {
+        assertEquals("Ace of Hearts, King of Hearts", hand("A", "K").join());
+        assertEquals("[2 of Hearts]", hand("2").toString());
+    }
+}
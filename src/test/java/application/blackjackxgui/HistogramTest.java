@@ -0,0 +1,76 @@
+package application.blackjackxgui;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+    private static final int BUCKETS = 60 * 16; // Every power of two past 2^4, in 16 sub-buckets
+
+    @Test
+    void smallValuesHaveABucketEach() {
+        for (int value = 0; value < 16; value++) {
+            assertEquals(value, Histogram.indexOf(value));
+            assertEquals(value, Histogram.highestValueAt(value));
+        }
+    }
+
+    @Test
+    void everyValueLandsInTheBucketThatCoversIt() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong(Long.MAX_VALUE) >>> random.nextInt(63);
+            int index = Histogram.indexOf(value);
+            assertTrue(Histogram.highestValueAt(index) >= value, "bucket " + index + " tops out below " + value);
+            if (index > 0) {
+                assertTrue(Histogram.highestValueAt(index - 1) < value, "bucket " + (index - 1) + " already covers " + value);
+            }
+        }
+    }
+
+    @Test
+    void bucketsAreWithinASixteenthOfTheValue() {
+        for (long value = 16; value < 1_000_000; value = value * 17 / 16 + 1) {
+            long highest = Histogram.highestValueAt(Histogram.indexOf(value));
+            assertTrue(highest - value <= value / 16, value + " reported as " + highest);
+        }
+    }
+
+    @Test
+    void bucketBoundariesFollowOneAnother() {
+        for (int index = 1; index < BUCKETS; index++) {
+            assertEquals(index, Histogram.indexOf(Histogram.highestValueAt(index - 1) + 1));
+            assertEquals(index, Histogram.indexOf(Histogram.highestValueAt(index)));
+        }
+    }
+
+    @Test
+    void theLargestValueFitsTheLastBucket() {
+        assertEquals(BUCKETS - 1, Histogram.indexOf(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, Histogram.highestValueAt(BUCKETS - 1));
+    }
+
+    @Test
+    void percentilesReadBackWhatWasRecorded() {
+        Histogram histogram = new Histogram();
+        assertEquals(0, histogram.percentile(0.5));
+        for (int value = 1; value <= 1000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500, histogram.percentile(0.5), 500 / 16.0);
+        assertEquals(990, histogram.percentile(0.99), 990 / 16.0);
+        assertEquals(1000, histogram.percentile(1.0));
+    }
+
+    @Test
+    void negativeValuesCountAsZero() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.percentile(1.0));
+    }
+}
@@ -0,0 +1,109 @@
+package application.blackjackxgui;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryToolTest {
+    private static final int HEARTS = 0;
+    private static final long TIME = 1_700_000_000_000L;
+
+    @TempDir
+    Path directory;
+
+    private static Hand hand(String... ranks) {
+        Hand hand = new Hand();
+        for (String rank : ranks) {
+            int index = switch (rank) {
+                case "K" -> 11;
+                case "A" -> Card.ACE;
+                default -> Integer.parseInt(rank) - 2;
+            };
+            hand.add(Card.of(index, HEARTS));
+        }
+        return hand;
+    }
+
+    // Three rounds as Table archives them: a win and a natural against 17, a loss and an
+    // insurance bet against dealer blackjack, and a split with one hand doubled against a bust
+    private void writeRounds() throws IOException {
+        HandHistory.Row row = new HandHistory.Row();
+        try (HandHistory.Writer writer = new HandHistory.Writer(directory)) {
+            Hand dealer = hand("10", "7");
+            row.begin(TIME, 1, 1, dealer);
+            row.insurance(0);
+            Hand win = hand("10", "9");
+            row.hand(0, win, Rules.outcome(win, 1, dealer), 10);
+            Hand natural = hand("A", "K");
+            row.hand(1, natural, Rules.outcome(natural, 1, dealer), 10);
+            writer.add(row.buffer());
+
+            dealer = hand("A", "K");
+            row.begin(TIME + 1000, 2, 1, dealer);
+            row.insurance(5);
+            Hand loss = hand("10", "8");
+            row.hand(0, loss, Rules.outcome(loss, 1, dealer), 10);
+            writer.add(row.buffer());
+
+            dealer = hand("6", "10", "9");
+            row.begin(TIME + 2000, 1, 2, dealer);
+            row.insurance(0);
+            Hand doubled = hand("8", "3", "10");
+            row.hand(0, doubled, Rules.outcome(doubled, 2, dealer), 20);
+            Hand split = hand("8", "10");
+            row.hand(0, split, Rules.outcome(split, 2, dealer), 10);
+            writer.add(row.buffer());
+        }
+    }
+
+    @Test
+    void reportsWhatTheWriterArchived() throws IOException {
+        writeRounds();
+        HistoryTool tool = new HistoryTool(Long.MIN_VALUE, Long.MAX_VALUE, 0, 0);
+        RoundStats.Snapshot result = tool.run(directory);
+
+        assertEquals(3, result.getRounds());
+        assertEquals(5, result.getHands());
+        assertEquals(0.6, result.getRate(Outcome.WIN), 1e-9);
+        assertEquals(0.2, result.getRate(Outcome.BLACKJACK), 1e-9);
+        assertEquals(0.2, result.getRate(Outcome.LOSS), 1e-9);
+        assertEquals(10 + 10 + 5 + 10 + 20 + 10, result.getWagered());
+        // 20 and 25 for the first round, the insurance's 15 for the second, 40 and 20 for the third
+        assertEquals(20 + 25 + 15 + 40 + 20, result.getPaid());
+        assertEquals(1.0, result.getDealerBustRate(6), 1e-9);
+        assertEquals(5, tool.handsScanned);
+    }
+
+    @Test
+    void filtersByUpcardTableAndTime() throws IOException {
+        writeRounds();
+        RoundStats.Snapshot aces = new HistoryTool(Long.MIN_VALUE, Long.MAX_VALUE, 0, 1).run(directory);
+        assertEquals(1, aces.getRounds());
+        assertEquals(10 + 5, aces.getWagered());
+        assertEquals(15, aces.getPaid());
+
+        RoundStats.Snapshot tableOne = new HistoryTool(Long.MIN_VALUE, Long.MAX_VALUE, 1, 0).run(directory);
+        assertEquals(2, tableOne.getRounds());
+        assertEquals(4, tableOne.getHands());
+
+        RoundStats.Snapshot later = new HistoryTool(TIME + 1000, Long.MAX_VALUE, 0, 0).run(directory);
+        assertEquals(2, later.getRounds());
+        assertEquals(3, later.getHands());
+    }
+
+    @Test
+    void generatedRoundsDoubleSplitAndInsure() throws IOException {
+        HistoryTool.generate(directory, 2000, 1);
+        RoundStats.Snapshot result = new HistoryTool(Long.MIN_VALUE, Long.MAX_VALUE, 0, 0).run(directory);
+
+        assertEquals(2000, result.getRounds());
+        assertTrue(result.getHands() > 2000 * Table.MAX_PLAYERS, "some seats split");
+        // Doubles, splits and insurance all put more than the minimum bets on the table
+        long minimumBets = result.getHands() * ServerConfig.fromSystemProperties().minBet;
+        assertTrue(result.getWagered() > minimumBets);
+    }
+}
@@ -0,0 +1,179 @@
+package application.blackjackxgui;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+    private static final int TABLE = 1;
+    private static final int PLAYERS = 2;
+
+    @TempDir
+    Path directory;
+
+    // Deals and plays a round the way Table journals it: every player stands, then the dealer
+    // draws to 17 and each hand's result is recorded
+    private static void playRound(Journal journal, Deck deck, long round, boolean finish) {
+        journal.roundStart(TABLE, round, deck.getCursor());
+        Hand[] seats = new Hand[PLAYERS];
+        for (int seat = 0; seat < PLAYERS; seat++) {
+            seats[seat] = new Hand();
+            for (int c = 0; c < 2; c++) {
+                int card = deck.drawCard();
+                seats[seat].add(card);
+                journal.event(Journal.DEAL, TABLE, seat, card);
+            }
+        }
+        Hand dealer = new Hand();
+        for (int c = 0; c < 2; c++) {
+            int card = deck.drawCard();
+            dealer.add(card);
+            journal.event(Journal.DEALER_CARD, TABLE, 0, card);
+        }
+        if (!finish) {
+            return;
+        }
+        for (int seat = 0; seat < PLAYERS; seat++) {
+            journal.event(Journal.STAND, TABLE, seat, 0);
+        }
+        while (Rules.dealerHits(dealer)) {
+            int card = deck.drawCard();
+            dealer.add(card);
+            journal.event(Journal.DEALER_CARD, TABLE, 0, card);
+        }
+        for (int seat = 0; seat < PLAYERS; seat++) {
+            journal.event(Journal.RESULT, TABLE, seat, Rules.outcome(seats[seat], 1, dealer).ordinal());
+        }
+        journal.roundEnd(Journal.ROUND_END, TABLE, round);
+    }
+
+    @Test
+    void recoversTheShoeAndTheRoundCutShort() throws IOException {
+        Deck deck = new Deck(6, 0.75, new SplittableRandom(3));
+        try (Journal journal = Journal.open(directory)) {
+            journal.shuffle(TABLE, deck);
+            playRound(journal, deck, 1, true);
+            playRound(journal, deck, 2, false);
+        }
+
+        JournalRecovery.TableState state = JournalRecovery.recover(directory).get(TABLE);
+        assertEquals(2, state.getRound());
+        assertTrue(state.isInFlight());
+        assertEquals(deck.getSeed(), state.shoeSeed);
+        assertEquals(deck.size(), state.shoeSize);
+        assertEquals(deck.getCursor(), state.cursor);
+        assertEquals(2, state.dealerHand.size());
+        assertEquals(2, state.seats[0].size());
+        assertEquals(2, state.seats[1].size());
+        assertEquals(0, state.seats[2].size());
+
+        Deck restored = new Deck(6, 0.75, new SplittableRandom(4));
+        restored.restore(state.shoeSeed, state.cursor);
+        assertEquals(deck.drawCard(), restored.drawCard());
+    }
+
+    @Test
+    void aFinishedRoundIsNotInFlight() throws IOException {
+        Deck deck = new Deck(6, 0.75, new SplittableRandom(5));
+        try (Journal journal = Journal.open(directory)) {
+            journal.shuffle(TABLE, deck);
+            playRound(journal, deck, 7, true);
+        }
+        JournalRecovery.TableState state = JournalRecovery.recover(directory).get(TABLE);
+        assertEquals(7, state.getRound());
+        assertFalse(state.isInFlight());
+    }
+
+    @Test
+    void recoveryStopsAtACorruptRecord() throws IOException {
+        Deck deck = new Deck(6, 0.75, new SplittableRandom(6));
+        try (Journal journal = Journal.open(directory)) {
+            journal.shuffle(TABLE, deck);
+            journal.roundStart(TABLE, 1, 0);
+            journal.roundStart(TABLE, 2, 10);
+        }
+        // Records are i32 length, i32 CRC, payload: SHUFFLE carries 15 bytes, ROUND_START 17
+        int third = (8 + 15) + (8 + 17);
+        try (FileChannel channel = FileChannel.open(Journal.segments(directory).get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), third + 8 + 9); // Inside the round number
+        }
+        JournalRecovery.TableState state = JournalRecovery.recover(directory).get(TABLE);
+        assertEquals(1, state.getRound());
+        assertEquals(0, state.cursor);
+    }
+
+    @Test
+    void aReopenedJournalCarriesOnInANewSegment() throws IOException {
+        Deck deck = new Deck(6, 0.75, new SplittableRandom(7));
+        try (Journal journal = Journal.open(directory)) {
+            journal.shuffle(TABLE, deck);
+            playRound(journal, deck, 1, true);
+        }
+        try (Journal journal = Journal.open(directory)) {
+            playRound(journal, deck, 2, true);
+        }
+        assertEquals(2, Journal.segments(directory).size());
+        Map<Integer, JournalRecovery.TableState> tables = JournalRecovery.recover(directory);
+        assertEquals(2, tables.get(TABLE).getRound());
+        assertEquals(deck.getCursor(), tables.get(TABLE).cursor);
+    }
+
+    @Test
+    void replayAgreesWithTheRoundsRecorded() throws IOException {
+        Deck deck = new Deck(6, 0.75, new SplittableRandom(8));
+        try (Journal journal = Journal.open(directory)) {
+            journal.shuffle(TABLE, deck);
+            for (long round = 1; round <= 20; round++) {
+                playRound(journal, deck, round, true);
+            }
+        }
+        ReplayTool replay = new ReplayTool(null, 0);
+        replay.run(directory);
+        assertEquals(20, replay.rounds);
+        assertEquals(0, replay.mismatches);
+    }
+
+    @Test
+    void replayFlagsAResultTheRulesDontGive() throws IOException {
+        Deck deck = new Deck(6, 0.75, new SplittableRandom(9));
+        try (Journal journal = Journal.open(directory)) {
+            journal.shuffle(TABLE, deck);
+            playRound(journal, deck, 1, true);
+            // A second round whose first seat is recorded as having busted without drawing
+            journal.roundStart(TABLE, 2, deck.getCursor());
+            for (int seat = 0; seat < PLAYERS; seat++) {
+                journal.event(Journal.DEAL, TABLE, seat, deck.drawCard());
+                journal.event(Journal.DEAL, TABLE, seat, deck.drawCard());
+            }
+            Hand dealer = new Hand();
+            for (int c = 0; c < 2; c++) {
+                int card = deck.drawCard();
+                dealer.add(card);
+                journal.event(Journal.DEALER_CARD, TABLE, 0, card);
+            }
+            journal.event(Journal.STAND, TABLE, 0, 0);
+            journal.event(Journal.STAND, TABLE, 1, 0);
+            while (Rules.dealerHits(dealer)) {
+                int card = deck.drawCard();
+                dealer.add(card);
+                journal.event(Journal.DEALER_CARD, TABLE, 0, card);
+            }
+            journal.event(Journal.RESULT, TABLE, 0, Outcome.BUST.ordinal());
+            journal.event(Journal.RESULT, TABLE, 1, Outcome.BUST.ordinal());
+            journal.roundEnd(Journal.ROUND_END, TABLE, 2);
+        }
+        ReplayTool replay = new ReplayTool(null, 0);
+        replay.run(directory);
+        assertEquals(2, replay.rounds);
+        assertEquals(1, replay.mismatches);
+    }
+}
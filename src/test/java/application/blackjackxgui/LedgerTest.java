@@ -0,0 +1,134 @@
+package application.blackjackxgui;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerTest {
+    private static final long START = 1000;
+
+    @TempDir
+    Path directory;
+
+    private Ledger ledger(Path file) throws IOException {
+        return new Ledger(START, 10, 500, file);
+    }
+
+    // "<token> <chips>" lines of the snapshot, without its header
+    private static List<String> accounts(Path file) throws IOException {
+        return Files.readAllLines(file).stream().filter(line -> !line.startsWith("#")).sorted().toList();
+    }
+
+    @Test
+    void settlesAWholeRoundInOneBatch() throws IOException {
+        Ledger ledger = ledger(null);
+        Ledger.Account winner = ledger.openAccount("a");
+        Ledger.Account loser = ledger.openAccount("b");
+        Ledger.Account pushed = ledger.openAccount("c");
+        assertEquals(100, winner.hold(100));
+        assertEquals(100, loser.hold(100));
+        assertEquals(100, pushed.hold(100));
+        assertEquals(START - 100, winner.getBalance());
+
+        Ledger.Batch batch = new Ledger.Batch(Table.MAX_PLAYERS);
+        batch.add(winner, 100, Rules.payout(Outcome.WIN, 100));
+        batch.add(loser, 100, Rules.payout(Outcome.LOSS, 100));
+        batch.add(pushed, 100, Rules.payout(Outcome.PUSH, 100));
+        ledger.settle(batch);
+
+        assertEquals(START + 100, winner.getBalance());
+        assertEquals(START - 100, loser.getBalance());
+        assertEquals(START, pushed.getBalance());
+
+        batch.add(winner, 0, 0); // The batch is reused for the next round
+        ledger.settle(batch);
+        assertEquals(START + 100, winner.getBalance());
+    }
+
+    @Test
+    void aStakeIsCappedAtTheBalance() throws IOException {
+        Ledger.Account account = ledger(null).openAccount("a");
+        assertEquals(START, account.hold(START + 500));
+        assertEquals(0, account.getBalance());
+        assertEquals(0, account.hold(10));
+    }
+
+    @Test
+    void snapshotRestoresBalancesForTheSameTokens() throws IOException {
+        Path file = directory.resolve("ledger.txt");
+        Ledger ledger = ledger(file);
+        Ledger.Batch batch = new Ledger.Batch(1);
+        Ledger.Account account = ledger.openAccount("a");
+        account.hold(100);
+        batch.add(account, 100, 0);
+        ledger.settle(batch);
+        ledger.openAccount("b").hold(50); // Staked on a round the restart will void
+        ledger.snapshot();
+        assertEquals(List.of("a 900", "b 1000"), accounts(file));
+
+        Ledger restarted = ledger(file);
+        assertTrue(restarted.isRestored("a"));
+        assertFalse(restarted.isRestored("c"));
+        assertEquals(900, restarted.openAccount("a").getBalance());
+        assertFalse(restarted.isRestored("a"));
+        assertEquals(START, restarted.openAccount("c").getBalance());
+    }
+
+    @Test
+    void unclaimedAccountsAreKeptUntilDropped() throws IOException {
+        Path file = directory.resolve("ledger.txt");
+        Ledger ledger = ledger(file);
+        ledger.openAccount("a");
+        ledger.openAccount("b");
+        ledger.snapshot();
+
+        Ledger restarted = ledger(file);
+        restarted.openAccount("a");
+        restarted.snapshot();
+        assertEquals(List.of("a 1000", "b 1000"), accounts(file));
+
+        restarted.dropUnclaimed();
+        restarted.snapshot();
+        assertEquals(List.of("a 1000"), accounts(file));
+        assertFalse(restarted.isRestored("b"));
+    }
+
+    @Test
+    void closedAndTokenlessAccountsAreNotKept() throws IOException {
+        Path file = directory.resolve("ledger.txt");
+        Ledger ledger = ledger(file);
+        Ledger.Account leaving = ledger.openAccount("a");
+        ledger.openAccount("b");
+        ledger.openAccount(null).hold(10);
+        ledger.closeAccount(leaving);
+        ledger.snapshot();
+        assertEquals(List.of("b 1000"), accounts(file));
+    }
+
+    @Test
+    void anUnchangedLedgerIsNotWrittenAgain() throws IOException {
+        Path file = directory.resolve("ledger.txt");
+        Ledger ledger = ledger(file);
+        ledger.openAccount("a");
+        ledger.snapshot();
+        Files.delete(file);
+        ledger.snapshot();
+        assertFalse(Files.exists(file));
+
+        ledger.openAccount("b");
+        ledger.snapshot();
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    void rejectsImpossibleBetLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new Ledger(START, 0, 10, null));
+        assertThrows(IllegalArgumentException.class, () -> new Ledger(START, 20, 10, null));
+    }
+}
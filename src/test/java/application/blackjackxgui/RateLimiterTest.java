@@ -0,0 +1,65 @@
+package application.blackjackxgui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void aRateOfZeroTurnsTheLimitOff() {
+        assertNull(RateLimiter.create(0, 100));
+    }
+
+    @Test
+    void allowsABurstThenRunsDry() {
+        RateLimiter limiter = RateLimiter.create(10, 5);
+        long now = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(now));
+        }
+        assertFalse(limiter.tryAcquire(now));
+    }
+
+    @Test
+    void refillsAtTheRateUpToTheBurst() {
+        RateLimiter limiter = RateLimiter.create(10, 5);
+        long now = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(now);
+        }
+        now += SECOND / 10; // One token's worth
+        assertTrue(limiter.tryAcquire(now));
+        assertFalse(limiter.tryAcquire(now));
+
+        now += 10 * SECOND; // Far longer than it takes to fill
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire(now));
+        }
+        assertFalse(limiter.tryAcquire(now));
+    }
+
+    @Test
+    void refundsGiveBackWhatAnActionTook() {
+        RateLimiter limiter = RateLimiter.create(1, 2);
+        long now = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire(now), "line " + i);
+            limiter.refund();
+        }
+    }
+
+    @Test
+    void refundsNeverGrowTheBucketPastTheBurst() {
+        RateLimiter limiter = RateLimiter.create(1, 2);
+        long now = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            limiter.refund();
+        }
+        assertTrue(limiter.tryAcquire(now));
+        assertTrue(limiter.tryAcquire(now));
+        assertFalse(limiter.tryAcquire(now));
+        assertEquals(1, limiter.getRate());
+    }
+}
@@ -0,0 +1,51 @@
+package application.blackjackxgui;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StrategyTableTest {
+    private static final int HEARTS = 0;
+
+    private static int card(String rank) {
+        int index = switch (rank) {
+            case "K" -> 11;
+            case "A" -> Card.ACE;
+            default -> Integer.parseInt(rank) - 2;
+        };
+        return Card.of(index, HEARTS);
+    }
+
+    private static Hand hand(String... ranks) {
+        Hand hand = new Hand();
+        for (String rank : ranks) {
+            hand.add(card(rank));
+        }
+        return hand;
+    }
+
+    @Test
+    void softSeventeenDoublesAgainstAFiveWhenItCan() {
+        assertEquals(StrategyTable.DOUBLE, StrategyTable.action(hand("A", "6"), card("5"), true, false));
+        assertEquals(StrategyTable.HIT, StrategyTable.action(hand("A", "6"), card("5"), false, false));
+    }
+
+    @Test
+    void splitAcesOnlyStandOrSplitAgain() {
+        int five = card("5");
+        assertEquals(StrategyTable.STAND, StrategyTable.action(hand("A", "6"), five, false, false, false));
+        assertEquals(StrategyTable.SPLIT, StrategyTable.action(hand("A", "A"), five, false, true, false));
+        assertEquals(StrategyTable.STAND, StrategyTable.action(hand("A", "A"), five, false, false, false));
+        // Standing on soft 17 is worth less than hitting it would be, but hitting isn't allowed
+        float stand = StrategyTable.expectedReturn(hand("A", "6"), five, false, false, false);
+        assertTrue(stand < StrategyTable.expectedReturn(hand("A", "6"), five, false, false));
+    }
+
+    @Test
+    void pairsSplitOnlyWhenAllowed() {
+        int six = card("6");
+        assertEquals(StrategyTable.SPLIT, StrategyTable.action(hand("8", "8"), six, true, true));
+        assertNotEquals(StrategyTable.SPLIT, StrategyTable.action(hand("8", "8"), six, true, false));
+        assertEquals(StrategyTable.STAND, StrategyTable.action(hand("K", "K"), six, true, true));
+    }
+}